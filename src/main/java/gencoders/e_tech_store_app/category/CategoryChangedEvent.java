@@ -0,0 +1,16 @@
+package gencoders.e_tech_store_app.category;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/** Published whenever a category is created, modified or removed. */
+@Getter
+public class CategoryChangedEvent extends ApplicationEvent {
+
+    private final Long categoryId;
+
+    public CategoryChangedEvent(Object source, Long categoryId) {
+        super(source);
+        this.categoryId = categoryId;
+    }
+}
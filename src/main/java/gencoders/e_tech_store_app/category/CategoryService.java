@@ -2,6 +2,7 @@ package gencoders.e_tech_store_app.category;
 
 import gencoders.e_tech_store_app.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -11,6 +12,7 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
@@ -33,7 +35,9 @@ public class CategoryService {
                 request.getImageUrl(),
                 request.getDescription()
         );
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(this, saved.getId()));
+        return saved;
     }
 
     public Category updateCategory(Long id, CategoryRequest request) {
@@ -42,11 +46,14 @@ public class CategoryService {
         category.setSlug(request.getSlug());
         category.setImageUrl(request.getImageUrl());
         category.setDescription(request.getDescription());
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(this, id));
+        return saved;
     }
 
     public void deleteCategory(Long id) {
         Category category = getCategoryById(id);
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(this, id));
     }
 }
@@ -0,0 +1,43 @@
+package gencoders.e_tech_store_app.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the catalog's Cache-Control and surrogate headers just before a
+ * successful response body is written. Error responses of the same endpoints
+ * stay uncacheable.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class CatalogCacheHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    private final CatalogCacheInterceptor catalogCacheInterceptor;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse
+                && HttpStatusCode.valueOf(servletResponse.getServletResponse().getStatus()).is2xxSuccessful()) {
+            catalogCacheInterceptor.writeCacheHeaders(
+                    servletRequest.getServletRequest(), servletResponse.getServletResponse());
+        }
+        return body;
+    }
+}
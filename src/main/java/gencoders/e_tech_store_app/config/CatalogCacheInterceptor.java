@@ -0,0 +1,101 @@
+package gencoders.e_tech_store_app.config;
+
+import gencoders.e_tech_store_app.product.catalog.CatalogVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HTTP caching for the public catalog endpoints.
+ * <p>
+ * Validators come from {@link CatalogVersion}: a conditional request whose
+ * {@code If-None-Match} / {@code If-Modified-Since} still matches is answered
+ * with 304 before the controller runs. Product listings and detail show live
+ * stock (and can sort by it), so they are validated against the stock
+ * version as well; categories only against the catalog version. Endpoints
+ * fed outside the catalog (rankings that move with orders and signals) only
+ * get Cache-Control; the home snapshot sets its own content-hash ETag.
+ * <p>
+ * Cache-Control and the surrogate headers go only on 304s and successful
+ * responses ({@link CatalogCacheHeadersAdvice}), so a CDN never keeps an
+ * error page.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheInterceptor implements HandlerInterceptor {
+
+    private static final Set<String> UNVALIDATED = Set.of(
+            "/api/products/public/bestsellers",
+            "/api/products/public/home",
+            "/api/products/public/trending",
+            "/api/products/public/{id}/related"
+    );
+
+    // Surrogate keys of a cacheable request, for the headers written with its response body
+    static final String SURROGATE_KEYS_ATTRIBUTE = CatalogCacheInterceptor.class.getName() + ".surrogateKeys";
+
+    private final CatalogVersion catalogVersion;
+
+    @Value("${app.http-cache.cache-control:public, max-age=60, stale-while-revalidate=300}")
+    private String cacheControl;
+
+    @Value("${app.http-cache.surrogate-control:max-age=3600}")
+    private String surrogateControl;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+
+        request.setAttribute(SURROGATE_KEYS_ATTRIBUTE, surrogateKeys(request));
+
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null && UNVALIDATED.contains(pattern)) {
+            return true;
+        }
+        // Sets ETag and Last-Modified, and the 304 status when the client copy is current
+        boolean stock = !request.getRequestURI().startsWith("/api/categories");
+        boolean notModified = new ServletWebRequest(request, response).checkNotModified(
+                stock ? catalogVersion.stockEtag() : catalogVersion.etag(),
+                stock ? catalogVersion.stockLastModified() : catalogVersion.lastModified());
+        if (notModified) {
+            writeCacheHeaders(request, response);
+        }
+        return !notModified;
+    }
+
+    /** Cache-Control and surrogate headers for a cacheable request; no-op for any other. */
+    void writeCacheHeaders(HttpServletRequest request, HttpServletResponse response) {
+        Object keys = request.getAttribute(SURROGATE_KEYS_ATTRIBUTE);
+        if (keys == null) return;
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader("Surrogate-Control", surrogateControl);
+        response.setHeader("Surrogate-Key", keys.toString());
+    }
+
+    /** Keys a CDN can purge by: the whole catalog, and the product or category addressed. */
+    @SuppressWarnings("unchecked")
+    private static String surrogateKeys(HttpServletRequest request) {
+        boolean categories = request.getRequestURI().startsWith("/api/categories");
+        StringBuilder keys = new StringBuilder(categories ? "catalog categories" : "catalog products");
+
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables != null && variables.containsKey("id")) {
+            keys.append(categories ? " category-" : " product-").append(variables.get("id"));
+        }
+        return keys.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package gencoders.e_tech_store_app.config;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One window of a keyset-paginated listing.
+ *
+ * @param content       the rows of this window
+ * @param nextCursor    opaque token for the following window, null on the last one
+ * @param totalElements total matching rows, null when the caller skipped the count
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, Long totalElements) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextCursor, totalElements);
+    }
+}
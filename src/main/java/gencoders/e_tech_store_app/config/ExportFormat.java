@@ -0,0 +1,36 @@
+package gencoders.e_tech_store_app.config;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/** Wire formats of the streaming admin exports. */
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public static ExportFormat from(String format) {
+        return format == null || format.isBlank() ? CSV : valueOf(format.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public MediaType mediaType(boolean gzip) {
+        return gzip ? GZIP : mediaType;
+    }
+
+    /** Content-Disposition header value, e.g. {@code attachment; filename="orders.csv.gz"}. */
+    public String attachment(String baseName, boolean gzip) {
+        String filename = baseName + "." + extension + (gzip ? ".gz" : "");
+        return ContentDisposition.attachment().filename(filename).build().toString();
+    }
+}
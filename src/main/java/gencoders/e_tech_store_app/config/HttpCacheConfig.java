@@ -0,0 +1,21 @@
+package gencoders.e_tech_store_app.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.http-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+    private final CatalogCacheInterceptor catalogCacheInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogCacheInterceptor)
+                .addPathPatterns("/api/products/public/**", "/api/categories/**");
+    }
+}
@@ -0,0 +1,104 @@
+package gencoders.e_tech_store_app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.opencsv.CSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes export rows straight to a response stream, one at a time.
+ * <p>
+ * Rows are records; CSV columns are the record components in declaration
+ * order, NDJSON lines are the records serialized by Jackson. Nothing is
+ * buffered beyond the writer's fixed-size buffer, so memory does not depend
+ * on the number of rows.
+ */
+public final class RecordExportWriter<T extends Record> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Method[] accessors;
+    private final CSVWriter csv;
+    private final SequenceWriter ndjson;
+    private final GZIPOutputStream gzip;
+    private long rows;
+
+    private RecordExportWriter(OutputStream out, ExportFormat format, boolean compress,
+                               Class<T> type, ObjectMapper objectMapper) throws IOException {
+        RecordComponent[] components = type.getRecordComponents();
+        this.accessors = Arrays.stream(components).map(RecordComponent::getAccessor).toArray(Method[]::new);
+        this.gzip = compress ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        OutputStream target = compress ? gzip : out;
+
+        if (format == ExportFormat.CSV) {
+            this.csv = new CSVWriter(new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE));
+            this.ndjson = null;
+            csv.writeNext(Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new), false);
+        } else {
+            this.csv = null;
+            this.ndjson = objectMapper.writerFor(type)
+                    .withRootValueSeparator("\n")
+                    .writeValues(new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE));
+        }
+    }
+
+    public static <T extends Record> RecordExportWriter<T> open(OutputStream out, ExportFormat format, boolean gzip,
+                                                                Class<T> type, ObjectMapper objectMapper) throws IOException {
+        return new RecordExportWriter<>(out, format, gzip, type, objectMapper);
+    }
+
+    public void write(T row) {
+        try {
+            if (csv != null) {
+                csv.writeNext(cells(row), false);
+            } else {
+                ndjson.write(row);
+            }
+            rows++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /** Flushes and finishes the stream; the response stream itself is left to the container. */
+    @Override
+    public void close() throws IOException {
+        if (csv != null) {
+            csv.flush();
+        } else {
+            ndjson.flush();
+        }
+        if (gzip != null) gzip.finish();
+    }
+
+    private String[] cells(T row) {
+        String[] cells = new String[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            Object value;
+            try {
+                value = accessors[i].invoke(row);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read export column " + accessors[i].getName(), e);
+            }
+            cells[i] = value == null ? "" : value instanceof BigDecimal d ? d.toPlainString() : value.toString();
+        }
+        return cells;
+    }
+}
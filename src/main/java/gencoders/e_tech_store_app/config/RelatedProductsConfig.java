@@ -0,0 +1,28 @@
+package gencoders.e_tech_store_app.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Single worker thread for the related-products index. All of the index's
+ * writes run on it in submission order. The index coalesces catalog changes
+ * per product and keeps at most one drain task queued, so the queue stays a
+ * few tasks deep; its capacity is left open because a rejected task would
+ * leave the neighbors stale.
+ */
+@Configuration
+public class RelatedProductsConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor relatedProductsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("related-products-");
+        executor.setDaemon(true);
+        // Pending recomputations are derived data; they are simply rebuilt on the next start
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -1,6 +1,8 @@
 package gencoders.e_tech_store_app.exception;
 
 import gencoders.e_tech_store_app.config.MessageResponse;
+import gencoders.e_tech_store_app.order.StockException;
+import gencoders.e_tech_store_app.order.StockShortageResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -45,6 +47,21 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(new MessageResponse(ex.getMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<?> handleInvalidCursor(InvalidCursorException ex) {
+        return new ResponseEntity<>(new MessageResponse(ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(StockException.class)
+    public ResponseEntity<?> handleStockException(StockException ex) {
+        return new ResponseEntity<>(new StockShortageResponse(ex.getMessage(), ex.getShortLines()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<?> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        return new ResponseEntity<>(new MessageResponse(ex.getMessage()), ex.getStatus());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGenericException(Exception ex) {
         return new ResponseEntity<>(
@@ -0,0 +1,27 @@
+package gencoders.e_tech_store_app.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private IdempotencyConflictException(String message, HttpStatus status) {
+        super(message);
+        this.status = status;
+    }
+
+    /** The first request with this key has not finished yet. */
+    public static IdempotencyConflictException inProgress() {
+        return new IdempotencyConflictException(
+                "A request with this Idempotency-Key is still being processed", HttpStatus.CONFLICT);
+    }
+
+    /** The key was already used for a request with a different body. */
+    public static IdempotencyConflictException reused() {
+        return new IdempotencyConflictException(
+                "This Idempotency-Key was already used for a different request", HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+}
@@ -0,0 +1,7 @@
+package gencoders.e_tech_store_app.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
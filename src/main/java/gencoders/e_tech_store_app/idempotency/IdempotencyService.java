@@ -0,0 +1,207 @@
+package gencoders.e_tech_store_app.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gencoders.e_tech_store_app.exception.IdempotencyConflictException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * At-most-once execution of requests sent with an {@code Idempotency-Key}.
+ * <p>
+ * The first request claims the key with a single insert and runs; a
+ * successful response is stored with the key and a fingerprint of the
+ * request body. A retry costs one primary-key lookup and gets the stored
+ * response back unchanged, marked with {@code Idempotent-Replayed}. A retry
+ * while the first request is running gets 409, and reusing a key for a
+ * different body gets 422. Failed requests give the key back so the client
+ * can retry with it. A claim holds a short lease: one left behind by a crash
+ * is taken over by the next retry once the lease runs out, and only the
+ * current holder of a claim can complete or release it. Keys expire after
+ * the TTL and are purged in the background.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    // A claim still in progress past its lease is treated as abandoned
+    private static final String FIND = """
+            SELECT request_hash, status_code, response_body FROM idempotency_keys
+            WHERE scope = :scope AND idem_key = :key AND expires_at > :now
+              AND (status_code IS NOT NULL OR created_at > :leaseCutoff)
+            """;
+
+    // Inserts the claim, or takes over an expired key or an abandoned claim
+    private static final String CLAIM = """
+            INSERT INTO idempotency_keys (scope, idem_key, request_hash, created_at, expires_at)
+            VALUES (:scope, :key, :hash, :now, :expiresAt)
+            ON CONFLICT (scope, idem_key) DO UPDATE
+                SET request_hash = EXCLUDED.request_hash,
+                    status_code = NULL,
+                    response_body = NULL,
+                    created_at = EXCLUDED.created_at,
+                    expires_at = EXCLUDED.expires_at
+                WHERE idempotency_keys.expires_at <= :now
+                   OR (idempotency_keys.status_code IS NULL AND idempotency_keys.created_at <= :leaseCutoff)
+            """;
+
+    // The claim time identifies the holder, so a request whose claim was taken over changes nothing
+    private static final String COMPLETE = """
+            UPDATE idempotency_keys SET status_code = :status, response_body = :body
+            WHERE scope = :scope AND idem_key = :key AND created_at = :claimedAt AND status_code IS NULL
+            """;
+
+    private static final String RELEASE = """
+            DELETE FROM idempotency_keys
+            WHERE scope = :scope AND idem_key = :key AND created_at = :claimedAt AND status_code IS NULL
+            """;
+
+    private static final String PURGE = "DELETE FROM idempotency_keys WHERE expires_at <= :now";
+
+    private record Stored(String requestHash, Integer statusCode, String responseBody) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.lease-seconds:120}")
+    private long leaseSeconds;
+
+    /**
+     * Runs the action once per key within the scope; without a key it simply
+     * runs. Scopes keep the keys of different endpoints and callers apart.
+     */
+    public ResponseEntity<?> execute(String key, String scope, Object request,
+                                     Supplier<? extends ResponseEntity<?>> action) {
+        if (key == null) return action.get();
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String hash = fingerprint(request);
+        Stored stored = find(scope, key);
+        if (stored == null) {
+            LocalDateTime claimedAt = claim(scope, key, hash);
+            if (claimedAt != null) {
+                return run(scope, key, claimedAt, action);
+            }
+            // Lost the claim to a concurrent request with the same key
+            stored = find(scope, key);
+            if (stored == null) throw IdempotencyConflictException.inProgress();
+        }
+        return replay(stored, hash);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update(PURGE, new MapSqlParameterSource("now", LocalDateTime.now()));
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private ResponseEntity<?> run(String scope, String key, LocalDateTime claimedAt,
+                                  Supplier<? extends ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(scope, key, claimedAt);
+            throw e;
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            release(scope, key, claimedAt);
+            return response;
+        }
+        try {
+            int stored = jdbcTemplate.update(COMPLETE, params(scope, key)
+                    .addValue("claimedAt", claimedAt)
+                    .addValue("status", response.getStatusCode().value())
+                    .addValue("body", objectMapper.writeValueAsString(response.getBody())));
+            if (stored == 0) {
+                log.warn("Idempotency key {} in {} outlived its lease and was taken over", key, scope);
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Response for idempotency key {} in {} could not be stored", key, scope, e);
+            release(scope, key, claimedAt);
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Stored stored, String hash) {
+        if (!stored.requestHash().equals(hash)) throw IdempotencyConflictException.reused();
+        if (stored.statusCode() == null) throw IdempotencyConflictException.inProgress();
+        return ResponseEntity.status(stored.statusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.responseBody());
+    }
+
+    private Stored find(String scope, String key) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Stored> rows = jdbcTemplate.query(FIND, params(scope, key)
+                        .addValue("now", now)
+                        .addValue("leaseCutoff", now.minusSeconds(leaseSeconds)),
+                (rs, i) -> new Stored(rs.getString("request_hash"),
+                        rs.getObject("status_code", Integer.class),
+                        rs.getString("response_body")));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /** The claim time, which identifies this claim later, or null when another request holds the key. */
+    private LocalDateTime claim(String scope, String key, String hash) {
+        // Truncated to the column's precision so the claim time compares equal when read back
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int claimed = jdbcTemplate.update(CLAIM, params(scope, key)
+                .addValue("hash", hash)
+                .addValue("now", now)
+                .addValue("leaseCutoff", now.minusSeconds(leaseSeconds))
+                .addValue("expiresAt", now.plusHours(ttlHours)));
+        return claimed == 1 ? now : null;
+    }
+
+    private void release(String scope, String key, LocalDateTime claimedAt) {
+        jdbcTemplate.update(RELEASE, params(scope, key).addValue("claimedAt", claimedAt));
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint the request", e);
+        }
+    }
+
+    private static MapSqlParameterSource params(String scope, String key) {
+        return new MapSqlParameterSource()
+                .addValue("scope", scope)
+                .addValue("key", key);
+    }
+}
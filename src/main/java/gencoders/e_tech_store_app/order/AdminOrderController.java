@@ -0,0 +1,59 @@
+package gencoders.e_tech_store_app.order;
+
+import gencoders.e_tech_store_app.config.CursorPage;
+import gencoders.e_tech_store_app.config.ExportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AdminOrderController {
+
+    private final OrderService orderService;
+
+    /**
+     * Orders newest first, filtered; pass the returned cursor for the next page
+     */
+    @GetMapping
+    public ResponseEntity<CursorPage<OrderResponseDTO>> getOrders(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) String phoneNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        OrderFilter filter = new OrderFilter(userId, status, from, to, minTotal, phoneNumber);
+        return ResponseEntity.ok(orderService.getAllOrders(filter, cursor, size, withTotal));
+    }
+
+    /**
+     * All orders as CSV or NDJSON, streamed and optionally gzip-compressed
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.attachment("orders", gzip))
+                .contentType(exportFormat.mediaType(gzip))
+                .body(out -> orderService.exportOrders(out, exportFormat, gzip));
+    }
+}
@@ -0,0 +1,26 @@
+package gencoders.e_tech_store_app.order;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Map;
+
+/**
+ * Published inside the transaction that cancels an order, or that reinstates
+ * a cancelled one (a payment confirmed after its stock hold expired). Carries
+ * the units bought per product id, like {@link OrderPlacedEvent}.
+ */
+@Getter
+public class OrderCancellationEvent extends ApplicationEvent {
+
+    private final Long orderId;
+    private final Map<Long, Integer> quantities;
+    private final boolean cancelled;
+
+    public OrderCancellationEvent(Object source, Long orderId, Map<Long, Integer> quantities, boolean cancelled) {
+        super(source);
+        this.orderId = orderId;
+        this.quantities = quantities;
+        this.cancelled = cancelled;
+    }
+}
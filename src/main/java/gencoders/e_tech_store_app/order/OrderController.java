@@ -1,36 +1,66 @@
 package gencoders.e_tech_store_app.order;
 
+import gencoders.e_tech_store_app.config.CursorPage;
+import gencoders.e_tech_store_app.idempotency.IdempotencyService;
 import gencoders.e_tech_store_app.payment.Payment;
 import gencoders.e_tech_store_app.payment.PaymentDto;
 import gencoders.e_tech_store_app.payment.PaymentResponse;
+import gencoders.e_tech_store_app.user.UserDetailsImpl;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping("/{orderId}/payments")
-    public ResponseEntity<PaymentResponse> processPayment(
+    public ResponseEntity<?> processPayment(
             @PathVariable Long orderId,
             @RequestBody PaymentDto paymentDto,
-            @RequestParam Long userId) {
-
-        Payment payment = orderService.processPayment(orderId, paymentDto, userId);
-        PaymentResponse response = new PaymentResponse();
-        response.setId(payment.getId());
-        response.setAmount(payment.getAmount());
-        response.setCurrency(payment.getCurrency());
-        response.setPaymentMethod(payment.getMethod().name());
-        response.setStatus(payment.getStatus().name());
-        response.setTransactionId(payment.getTransactionId());
-        response.setPaymentDate(payment.getPaymentDate());
-        return ResponseEntity.ok(response);
+            @RequestParam Long userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+
+        return idempotencyService.execute(idempotencyKey, "order-payment:" + userId + ":" + orderId, paymentDto, () -> {
+            Payment payment = orderService.processPayment(orderId, paymentDto, userId);
+            PaymentResponse response = new PaymentResponse();
+            response.setId(payment.getId());
+            response.setAmount(payment.getAmount());
+            response.setCurrency(payment.getCurrency());
+            response.setPaymentMethod(payment.getMethod().name());
+            response.setStatus(payment.getStatus().name());
+            response.setTransactionId(payment.getTransactionId());
+            response.setPaymentDate(payment.getPaymentDate());
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * The signed-in user's orders, newest first; pass the returned cursor for the next page
+     */
+    @GetMapping
+    public ResponseEntity<CursorPage<OrderResponseDTO>> getUserOrders(
+            @AuthenticationPrincipal UserDetailsImpl user,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        OrderFilter filter = new OrderFilter(user.getId(), status, from, to, minTotal, null);
+        return ResponseEntity.ok(orderService.getUserOrders(user.getId(), filter, cursor, size, withTotal));
     }
 
     @GetMapping("/{orderId}")
@@ -39,12 +69,20 @@ public class OrderController {
     }
 
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest request, @RequestParam Long userId) {
-        return ResponseEntity.ok(orderService.createOrder(userId, request));
+    public ResponseEntity<?> createOrder(
+            @RequestBody OrderRequest request,
+            @RequestParam Long userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "order:" + userId, request,
+                () -> ResponseEntity.ok(orderService.createOrder(userId, request)));
     }
 
     @PostMapping("/rwanda")
-    public ResponseEntity<Order> createRwandaOrder(@RequestBody RwandaOrderRequest request, @RequestParam Long userId) {
-        return ResponseEntity.ok(orderService.createRwandaOrder(userId, request));
+    public ResponseEntity<?> createRwandaOrder(
+            @RequestBody RwandaOrderRequest request,
+            @RequestParam Long userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "rwanda-order:" + userId, request,
+                () -> ResponseEntity.ok(orderService.createRwandaOrder(userId, request)));
     }
 }
\ No newline at end of file
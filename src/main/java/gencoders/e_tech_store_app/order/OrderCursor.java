@@ -0,0 +1,35 @@
+package gencoders.e_tech_store_app.order;
+
+import gencoders.e_tech_store_app.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in an order listing (newest first): the order date and id
+ * of the last order already returned, in opaque {@link #encode()}d form.
+ */
+public record OrderCursor(LocalDateTime orderDate, Long id) {
+
+    private static final String VERSION = "o1";
+
+    public String encode() {
+        String raw = String.join(":", VERSION, id.toString(), orderDate.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return new OrderCursor(LocalDateTime.parse(parts[2]), Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
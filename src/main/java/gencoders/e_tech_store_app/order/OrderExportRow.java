@@ -0,0 +1,20 @@
+package gencoders.e_tech_store_app.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** One line of the admin order export; components are the export columns, in order. */
+public record OrderExportRow(
+        Long id,
+        Long userId,
+        String userEmail,
+        OrderStatus status,
+        LocalDateTime orderDate,
+        LocalDateTime deliveryDate,
+        Long itemCount,
+        BigDecimal subtotal,
+        BigDecimal tax,
+        BigDecimal shippingFee,
+        BigDecimal total,
+        String rwandaPhoneNumber
+) {}
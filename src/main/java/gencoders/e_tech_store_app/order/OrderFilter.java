@@ -0,0 +1,15 @@
+package gencoders.e_tech_store_app.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order listing filters; null fields are ignored. {@code from} is inclusive,
+ * {@code to} exclusive.
+ */
+public record OrderFilter(Long userId,
+                          OrderStatus status,
+                          LocalDateTime from,
+                          LocalDateTime to,
+                          BigDecimal minTotal,
+                          String phoneNumber) {}
@@ -0,0 +1,6 @@
+package gencoders.e_tech_store_app.order;
+
+import java.math.BigDecimal;
+
+/** Listing projection of an order line. */
+record OrderItemRow(Long orderId, String productName, Integer quantity, BigDecimal unitPrice, BigDecimal totalPrice) {}
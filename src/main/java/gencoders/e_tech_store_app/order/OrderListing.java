@@ -0,0 +1,155 @@
+package gencoders.e_tech_store_app.order;
+
+import gencoders.e_tech_store_app.config.CursorPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated order listings, newest first.
+ * <p>
+ * A page is two projection queries and never loads an {@link Order} entity:
+ * the orders with their customer and address, then the lines of exactly
+ * those orders. The seek on (order date, id) and the filters are served by
+ * the orders indexes, so a page costs the same at any depth; the total is
+ * only counted when asked for.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderListing {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SUMMARY_SELECT = """
+            SELECT new gencoders.e_tech_store_app.order.OrderSummaryRow(
+                o.id, u.email, o.status, o.orderDate, o.subtotal, o.tax, o.shippingFee, o.total,
+                a.street, a.city, a.country)
+            FROM Order o LEFT JOIN o.user u LEFT JOIN o.shippingAddress a
+            """;
+
+    private static final String ITEMS_SELECT = """
+            SELECT new gencoders.e_tech_store_app.order.OrderItemRow(
+                i.order.id, p.name, i.quantity, i.unitPrice, i.totalPrice)
+            FROM OrderItem i LEFT JOIN i.product p
+            WHERE i.order.id IN :orderIds
+            ORDER BY i.id
+            """;
+
+    private final EntityManager entityManager;
+
+    public CursorPage<OrderResponseDTO> list(OrderFilter filter, String cursor, int size, boolean withTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        OrderCursor after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        applyFilter(filter, where, params);
+        Long total = withTotal ? count(where, params) : null;
+
+        if (after != null) {
+            where.add("(o.orderDate < :afterDate OR (o.orderDate = :afterDate AND o.id < :afterId))");
+            params.put("afterDate", after.orderDate());
+            params.put("afterId", after.id());
+        }
+        TypedQuery<OrderSummaryRow> query = entityManager.createQuery(
+                SUMMARY_SELECT + whereClause(where) + " ORDER BY o.orderDate DESC, o.id DESC", OrderSummaryRow.class);
+        params.forEach(query::setParameter);
+        List<OrderSummaryRow> rows = query.setMaxResults(limit + 1).getResultList();
+
+        boolean hasNext = rows.size() > limit;
+        List<OrderSummaryRow> content = hasNext ? rows.subList(0, limit) : rows;
+        Map<Long, List<OrderItemDTO>> items = items(content);
+
+        String next = null;
+        if (hasNext) {
+            OrderSummaryRow last = content.get(content.size() - 1);
+            next = new OrderCursor(last.orderDate(), last.id()).encode();
+        }
+        return new CursorPage<>(content.stream()
+                .map(row -> toDto(row, items.getOrDefault(row.id(), List.of())))
+                .toList(), next, total);
+    }
+
+    /* ---------- Internals ---------- */
+
+    private static void applyFilter(OrderFilter filter, List<String> where, Map<String, Object> params) {
+        if (filter.userId() != null) {
+            where.add("o.user.id = :userId");
+            params.put("userId", filter.userId());
+        }
+        if (filter.status() != null) {
+            where.add("o.status = :status");
+            params.put("status", filter.status());
+        }
+        if (filter.from() != null) {
+            where.add("o.orderDate >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            where.add("o.orderDate < :to");
+            params.put("to", filter.to());
+        }
+        if (filter.minTotal() != null) {
+            where.add("o.total >= :minTotal");
+            params.put("minTotal", filter.minTotal());
+        }
+        if (filter.phoneNumber() != null && !filter.phoneNumber().isBlank()) {
+            where.add("o.rwandaPhoneNumber = :phoneNumber");
+            params.put("phoneNumber", filter.phoneNumber().trim());
+        }
+    }
+
+    private long count(List<String> where, Map<String, Object> params) {
+        TypedQuery<Long> query = entityManager.createQuery(
+                "SELECT COUNT(o) FROM Order o" + whereClause(where), Long.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private Map<Long, List<OrderItemDTO>> items(List<OrderSummaryRow> orders) {
+        if (orders.isEmpty()) return Map.of();
+        return entityManager.createQuery(ITEMS_SELECT, OrderItemRow.class)
+                .setParameter("orderIds", orders.stream().map(OrderSummaryRow::id).toList())
+                .getResultList().stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId,
+                        Collectors.mapping(OrderListing::toDto, Collectors.toList())));
+    }
+
+    private static String whereClause(List<String> where) {
+        return where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where);
+    }
+
+    private static OrderResponseDTO toDto(OrderSummaryRow row, List<OrderItemDTO> items) {
+        OrderResponseDTO dto = new OrderResponseDTO();
+        dto.setId(row.id());
+        dto.setUserEmail(row.userEmail());
+        dto.setItems(items);
+        dto.setSubtotal(row.subtotal());
+        dto.setTax(row.tax());
+        dto.setShipping(row.shippingFee());
+        dto.setTotal(row.total());
+        dto.setShippingAddress(Stream.of(row.street(), row.city(), row.country())
+                .filter(part -> part != null && !part.isBlank())
+                .collect(Collectors.joining(", ")));
+        dto.setStatus(row.status());
+        dto.setCreatedAt(row.orderDate());
+        return dto;
+    }
+
+    private static OrderItemDTO toDto(OrderItemRow row) {
+        OrderItemDTO dto = new OrderItemDTO();
+        dto.setProductName(row.productName());
+        dto.setQuantity(row.quantity());
+        dto.setPrice(row.unitPrice());
+        dto.setTotal(row.totalPrice());
+        return dto;
+    }
+}
@@ -0,0 +1,18 @@
+package gencoders.e_tech_store_app.order;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/** A payment provider reported a final outcome for an order's payment. */
+@Getter
+public class OrderPaymentSettledEvent extends ApplicationEvent {
+
+    private final Long orderId;
+    private final boolean successful;
+
+    public OrderPaymentSettledEvent(Object source, Long orderId, boolean successful) {
+        super(source);
+        this.orderId = orderId;
+        this.successful = successful;
+    }
+}
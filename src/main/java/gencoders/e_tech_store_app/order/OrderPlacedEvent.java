@@ -0,0 +1,24 @@
+package gencoders.e_tech_store_app.order;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Map;
+
+/**
+ * Published inside the order transaction once an order and its items are
+ * saved. Carries the units bought per product id so listeners do not need to
+ * reload the order.
+ */
+@Getter
+public class OrderPlacedEvent extends ApplicationEvent {
+
+    private final Long orderId;
+    private final Map<Long, Integer> quantities;
+
+    public OrderPlacedEvent(Object source, Long orderId, Map<Long, Integer> quantities) {
+        super(source);
+        this.orderId = orderId;
+        this.quantities = quantities;
+    }
+}
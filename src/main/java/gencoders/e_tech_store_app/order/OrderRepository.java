@@ -1,14 +1,32 @@
 package gencoders.e_tech_store_app.order;
 
 import gencoders.e_tech_store_app.user.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser(User user);
 
+    boolean existsByIdAndStatus(Long id, OrderStatus status);
+
+    // Admin export: forward-only projection, rows are fetched from the server in batches
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+           SELECT new gencoders.e_tech_store_app.order.OrderExportRow(
+               o.id, u.id, u.email, o.status, o.orderDate, o.deliveryDate,
+               (SELECT COUNT(i) FROM OrderItem i WHERE i.order = o),
+               o.subtotal, o.tax, o.shippingFee, o.total, o.rwandaPhoneNumber)
+           FROM Order o LEFT JOIN o.user u
+           ORDER BY o.id
+           """)
+    Stream<OrderExportRow> streamForExport();
+
 }
\ No newline at end of file
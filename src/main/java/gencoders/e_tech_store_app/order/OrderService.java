@@ -1,25 +1,40 @@
 package gencoders.e_tech_store_app.order;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import gencoders.e_tech_store_app.address.Address;
 import gencoders.e_tech_store_app.address.AddressRepository;
+import gencoders.e_tech_store_app.config.CursorPage;
+import gencoders.e_tech_store_app.config.ExportFormat;
+import gencoders.e_tech_store_app.config.RecordExportWriter;
 import gencoders.e_tech_store_app.exception.ResourceNotFoundException;
 import gencoders.e_tech_store_app.payment.Payment;
 import gencoders.e_tech_store_app.payment.PaymentDto;
 import gencoders.e_tech_store_app.payment.PaymentService;
-import gencoders.e_tech_store_app.product.Product;
+import gencoders.e_tech_store_app.payment.PaymentStatus;
 import gencoders.e_tech_store_app.product.ProductRepository;
+import gencoders.e_tech_store_app.product.ProductsBulkChangedEvent;
+import gencoders.e_tech_store_app.product.inventory.InventoryLedger;
+import gencoders.e_tech_store_app.product.inventory.MovementType;
+import gencoders.e_tech_store_app.product.inventory.StockReservationService;
 import gencoders.e_tech_store_app.shoppingcart.ShoppingCart;
 import gencoders.e_tech_store_app.shoppingcart.ShoppingCartService;
 import gencoders.e_tech_store_app.user.User;
 import gencoders.e_tech_store_app.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +46,11 @@ public class OrderService {
     private final ShoppingCartService shoppingCartService;
     private final ProductRepository productRepository;
     private final PaymentService paymentService;     // one‑way dependency (no cycle)
+    private final StockReservationService reservationService;
+    private final InventoryLedger inventoryLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final OrderListing orderListing;
 
     /* -------------------------------------------------
        PUBLIC API
@@ -68,23 +88,58 @@ public class OrderService {
         order.setItems(new HashSet<>(orderItems));
         order.calculateTotals();
         order.setStatus(OrderStatus.PENDING);
+        order.setOrderDate(LocalDateTime.now());
 
-        // Check stock and update
-        for (OrderItem item : order.getItems()) {
-            Product p = item.getProduct();
-            if (p.getStockQuantity() < item.getQuantity()) {
-                throw new IllegalStateException(
-                        "Insufficient stock for product: " + p.getName());
-            }
-            p.setStockQuantity(p.getStockQuantity() - item.getQuantity());
-            productRepository.save(p);
-        }
+        // Units per product, in product id order
+        Map<Long, Integer> quantities = order.getItems().stream()
+                .collect(Collectors.toMap(i -> i.getProduct().getId(), OrderItem::getQuantity, Integer::sum, TreeMap::new));
+        Map<Long, String> names = order.getItems().stream()
+                .collect(Collectors.toMap(i -> i.getProduct().getId(), i -> i.getProduct().getName(), (a, b) -> a));
+        takeStock(quantities, names);
 
         Order savedOrder = orderRepository.save(order);
+        inventoryLedger.recordAll(MovementType.SALE, quantities.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> -e.getValue())), savedOrder.getId());
+        // Units go back to stock unless the order is paid before the hold expires
+        reservationService.hold(savedOrder.getId(), quantities);
         shoppingCartService.clearCart(userId);
+
+        eventPublisher.publishEvent(new OrderPlacedEvent(this, savedOrder.getId(), quantities));
+        // Stock changed: refresh the catalog entries of the ordered products
+        eventPublisher.publishEvent(ProductsBulkChangedEvent.stockChanged(this, quantities.keySet()));
         return savedOrder;
     }
 
+    /**
+     * Takes stock for every product with one conditional UPDATE each, so two
+     * checkouts can never both take the last units and nobody waits on a read
+     * lock. Products are visited in id order, so concurrent orders acquire row
+     * locks in the same sequence and cannot deadlock. After the first short
+     * line the remaining lines are only checked, and the order fails with every
+     * short line; the rollback returns the stock already taken.
+     */
+    private void takeStock(Map<Long, Integer> quantities, Map<Long, String> names) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockException.ShortLine> shortLines = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            boolean attempted = shortLines.isEmpty();
+            if (attempted && productRepository.decrementStockIfAvailable(productId, quantity, now) == 1) {
+                return;
+            }
+            int available = productRepository.findActiveStockQuantity(productId).orElse(0);
+            if (attempted || available < quantity) {
+                shortLines.add(new StockException.ShortLine(productId, names.get(productId), quantity, available));
+            }
+        });
+
+        if (!shortLines.isEmpty()) {
+            throw new StockException("Insufficient stock for " + shortLines.stream()
+                    .map(line -> line.productName() + " (requested " + line.requested()
+                            + ", available " + line.available() + ")")
+                    .collect(Collectors.joining(", ")), shortLines);
+        }
+    }
+
     @Transactional
     public Payment processPayment(Long orderId, PaymentDto dto, Long userId) {
 
@@ -97,18 +152,24 @@ public class OrderService {
         dto.setAmount(order.getTotal());
         dto.setCurrency("RWF");
 
+        // A failed payment releases the stock hold and cancels the order
         Payment payment = paymentService.processPayment(dto);
 
-        order.setStatus(OrderStatus.PROCESSING);
-        orderRepository.save(order);
+        if (payment.getStatus() == PaymentStatus.COMPLETED) {
+            order.setStatus(OrderStatus.PROCESSING);
+            orderRepository.save(order);
+        }
 
         return payment;
     }
 
-    public List<Order> getUserOrders(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-        return orderRepository.findByUser(user);
+    /** A customer's orders, newest first; any user id in the filter is replaced by theirs. */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponseDTO> getUserOrders(Long userId, OrderFilter filter,
+                                                      String cursor, int size, boolean withTotal) {
+        OrderFilter own = new OrderFilter(userId, filter.status(), filter.from(), filter.to(),
+                filter.minTotal(), filter.phoneNumber());
+        return orderListing.list(own, cursor, size, withTotal);
     }
 
     public Order getOrderByIdAndUser(Long orderId, Long userId) {
@@ -126,6 +187,17 @@ public class OrderService {
     @Transactional
     public Order updateOrderStatus(Long orderId, OrderStatus status) {
         Order order = getOrderById(orderId);
+        if (status == OrderStatus.CANCELLED) {
+            reservationService.release(orderId);
+        }
+        // Releasing a pending order's holds cancels it already; only report what is left to change
+        boolean wasCancelled = order.getStatus() == OrderStatus.CANCELLED;
+        if (wasCancelled != (status == OrderStatus.CANCELLED)) {
+            Map<Long, Integer> quantities = order.getItems().stream()
+                    .filter(i -> i.getProduct() != null && i.getQuantity() != null)
+                    .collect(Collectors.toMap(i -> i.getProduct().getId(), OrderItem::getQuantity, Integer::sum, TreeMap::new));
+            eventPublisher.publishEvent(new OrderCancellationEvent(this, orderId, quantities, !wasCancelled));
+        }
         order.setStatus(status);
 
         if (status == OrderStatus.SHIPPED) {
@@ -136,8 +208,20 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    /** Admin order listing, newest first. */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponseDTO> getAllOrders(OrderFilter filter, String cursor, int size, boolean withTotal) {
+        return orderListing.list(filter, cursor, size, withTotal);
+    }
+
+    /** Streams every order to an admin download without loading the table into memory. */
+    @Transactional(readOnly = true)
+    public void exportOrders(OutputStream out, ExportFormat format, boolean gzip) throws IOException {
+        try (Stream<OrderExportRow> rows = orderRepository.streamForExport();
+             RecordExportWriter<OrderExportRow> writer =
+                     RecordExportWriter.open(out, format, gzip, OrderExportRow.class, objectMapper)) {
+            rows.forEach(writer::write);
+        }
     }
 
     @Transactional
@@ -0,0 +1,17 @@
+package gencoders.e_tech_store_app.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Listing projection of an order with its customer and shipping address. */
+record OrderSummaryRow(Long id,
+                       String userEmail,
+                       OrderStatus status,
+                       LocalDateTime orderDate,
+                       BigDecimal subtotal,
+                       BigDecimal tax,
+                       BigDecimal shippingFee,
+                       BigDecimal total,
+                       String street,
+                       String city,
+                       String country) {}
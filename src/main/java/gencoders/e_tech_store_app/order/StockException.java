@@ -1,7 +1,23 @@
 package gencoders.e_tech_store_app.order;
 
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
 public class StockException extends RuntimeException {
+
+    /** An order line that could not be fulfilled, with the stock left at the time. */
+    public record ShortLine(Long productId, String productName, int requested, int available) {}
+
+    private final List<ShortLine> shortLines;
+
     public StockException(String message) {
+        this(message, List.of());
+    }
+
+    public StockException(String message, List<ShortLine> shortLines) {
         super(message);
+        this.shortLines = List.copyOf(shortLines);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,6 @@
+package gencoders.e_tech_store_app.order;
+
+import java.util.List;
+
+/** Body of a 409 response when an order cannot be fulfilled from stock. */
+public record StockShortageResponse(String message, List<StockException.ShortLine> shortLines) {}
@@ -1,9 +1,12 @@
 package gencoders.e_tech_store_app.payment.Mtn;
 
+import gencoders.e_tech_store_app.idempotency.IdempotencyService;
+import gencoders.e_tech_store_app.user.UserDetailsImpl;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.HashMap;
@@ -17,16 +20,29 @@ import java.util.Map;
 public class MomoPaymentController {
 
     private final MomoPaymentService momoPaymentService;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Initiates payment for an order via MTN MoMo
      * Customer pays to admin account
      *
      * @param paymentRequest Order payment details
+     * @param idempotencyKey Optional key that makes retries of the same request safe
+     * @param user The paying customer; must own the order
      * @return Payment response with MoMo reference ID
      */
     @PostMapping("/pay-order")
-    public ResponseEntity<OrderPaymentResponse> payForOrder(@Valid @RequestBody OrderPaymentRequest paymentRequest) {
+    public ResponseEntity<?> payForOrder(
+            @Valid @RequestBody OrderPaymentRequest paymentRequest,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetailsImpl user) {
+        // A retried key replays the accepted collection instead of starting another one
+        return idempotencyService.execute(idempotencyKey,
+                "momo-pay-order:" + user.getId() + ":" + paymentRequest.getOrderId(), paymentRequest,
+                () -> initiatePayment(paymentRequest, user.getId()));
+    }
+
+    private ResponseEntity<OrderPaymentResponse> initiatePayment(OrderPaymentRequest paymentRequest, Long userId) {
         log.info("Received payment request for Order ID: {} - Customer: {} - Amount: {} {}",
                 paymentRequest.getOrderId(),
                 paymentRequest.getCustomerName(),
@@ -35,7 +51,7 @@ public class MomoPaymentController {
 
         try {
             // Process the payment through MTN MoMo
-            OrderPaymentResponse response = momoPaymentService.processOrderPayment(paymentRequest);
+            OrderPaymentResponse response = momoPaymentService.processOrderPayment(paymentRequest, userId);
 
             if (response.isSuccess()) {
                 log.info("Payment initiated successfully for Order ID: {} - MoMo Reference: {}",
@@ -63,33 +79,27 @@ public class MomoPaymentController {
     }
 
     /**
-     * Checks the status of an order payment
+     * Checks the status of an order payment as recorded by the store;
+     * the payment is settled in the background, not by this request
      *
      * @param orderId Order ID
      * @param momoReferenceId MTN MoMo reference ID
+     * @param user The paying customer
      * @return Current payment status
      */
     @GetMapping("/order-payment-status/{orderId}/{momoReferenceId}")
     public ResponseEntity<OrderPaymentResponse> checkOrderPaymentStatus(
             @PathVariable String orderId,
-            @PathVariable String momoReferenceId) {
+            @PathVariable String momoReferenceId,
+            @AuthenticationPrincipal UserDetailsImpl user) {
 
         log.info("Checking payment status for Order ID: {} - MoMo Reference: {}", orderId, momoReferenceId);
 
-        try {
-            OrderPaymentResponse response = momoPaymentService.checkOrderPaymentStatus(orderId, momoReferenceId);
-
-            log.info("Payment status retrieved for Order ID: {} - Status: {}",
-                    orderId, response.getPaymentStatus());
-
-            return ResponseEntity.ok(response);
+        OrderPaymentResponse response = momoPaymentService.getOrderPaymentStatus(orderId, momoReferenceId, user.getId());
 
-        } catch (Exception e) {
-            log.error("Error checking payment status for Order ID: {} - {}", orderId, e.getMessage(), e);
-
-            OrderPaymentResponse errorResponse = OrderPaymentResponse.createStatusResponse(
-                    orderId, momoReferenceId, PaymentStatus.UNKNOWN, null);
+        log.info("Payment status retrieved for Order ID: {} - Status: {}",
+                orderId, response.getPaymentStatus());
 
-            return ResponseEntity.internalServerError().body(errorResponse);
-        }
-    }}
+        return ResponseEntity.ok(response);
+    }
+}
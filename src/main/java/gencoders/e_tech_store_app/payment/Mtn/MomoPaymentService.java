@@ -1,15 +1,30 @@
 package gencoders.e_tech_store_app.payment.Mtn;
 
+import gencoders.e_tech_store_app.exception.ResourceNotFoundException;
+import gencoders.e_tech_store_app.order.Order;
+import gencoders.e_tech_store_app.order.OrderPaymentSettledEvent;
+import gencoders.e_tech_store_app.order.OrderRepository;
+import gencoders.e_tech_store_app.order.OrderStatus;
+import gencoders.e_tech_store_app.payment.entity.OrderPaymentEntity;
+import gencoders.e_tech_store_app.payment.entity.OrderPaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.ResourceAccessException;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -18,7 +33,14 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class MomoPaymentService {
 
+    private static final String ORDER_CURRENCY = "RWF";
+    private static final List<PaymentStatus> IN_PROGRESS = List.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING);
+
     private final MomoAuthService authService;
+    private final OrderRepository orderRepository;
+    private final OrderPaymentRepository orderPaymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     private final RestTemplate restTemplate = new RestTemplate();
 
     @Value("${momo.base-url}")
@@ -33,14 +55,23 @@ public class MomoPaymentService {
     @Value("${momo.admin-msisdn}")
     private String adminMsisdn;
 
+    @Value("${app.momo.settle-batch-size:50}")
+    private int settleBatchSize;
+
+    @Value("${app.momo.settle-timeout-minutes:20}")
+    private long settleTimeoutMinutes;
+
     /**
      * Processes order payment request through MTN MoMo
-     * Customer pays to admin account
+     * Customer pays to admin account. Only the owner of a pending order can
+     * pay for it, for at least the order total; the collection is recorded
+     * server-side and settled from that record.
      */
-    public OrderPaymentResponse processOrderPayment(OrderPaymentRequest paymentRequest) {
+    public OrderPaymentResponse processOrderPayment(OrderPaymentRequest paymentRequest, Long userId) {
         log.info("Processing order payment for Order ID: {} - Amount: {} {}",
                 paymentRequest.getOrderId(), paymentRequest.getAmount(), paymentRequest.getCurrency());
 
+        OrderPaymentEntity payment = null;
         try {
             // Validate request
             if (!paymentRequest.isValid()) {
@@ -52,10 +83,39 @@ public class MomoPaymentService {
                 );
             }
 
+            Order order = findOwnOrder(paymentRequest.getOrderId(), userId);
+            if (order == null) {
+                return rejected(paymentRequest, "Order not found");
+            }
+            if (order.getStatus() != OrderStatus.PENDING) {
+                return rejected(paymentRequest, "Order is not awaiting payment");
+            }
+            if (!ORDER_CURRENCY.equals(paymentRequest.getCurrency())
+                    || paymentRequest.getAmount().compareTo(order.getTotal()) < 0) {
+                return rejected(paymentRequest, "Payment must cover the order total of " + order.getTotal() + " " + ORDER_CURRENCY);
+            }
+
+            OrderPaymentEntity previous = orderPaymentRepository.findByOrderId(paymentRequest.getOrderId()).orElse(null);
+            if (previous != null && !previous.isPaymentFailed()) {
+                return rejected(paymentRequest, previous.isPaymentSuccessful()
+                        ? "Order is already paid" : "A payment for this order is already in progress");
+            }
+
             String referenceId = UUID.randomUUID().toString();
+            String externalId = paymentRequest.getExternalId();
+
+            payment = recordPayment(previous, paymentRequest, referenceId, externalId, userId);
+            if (payment == null) {
+                return rejected(paymentRequest, "A payment for this order is already in progress");
+            }
+            // The hold may have expired between the check above and recording the payment
+            if (!orderRepository.existsByIdAndStatus(order.getId(), OrderStatus.PENDING)) {
+                markFailed(payment, "Order is not awaiting payment");
+                return rejected(paymentRequest, "Order is not awaiting payment");
+            }
 
             // Prepare MoMo request body - Customer pays to Admin
-            Map<String, Object> requestBody = createMomoRequestBody(paymentRequest, referenceId);
+            Map<String, Object> requestBody = createMomoRequestBody(paymentRequest, externalId);
 
             // Prepare headers
             HttpHeaders headers = createMomoHeaders(referenceId);
@@ -75,7 +135,7 @@ public class MomoPaymentService {
                 return OrderPaymentResponse.createSuccessResponse(
                         paymentRequest.getOrderId(),
                         referenceId,
-                        paymentRequest.getExternalId(),
+                        externalId,
                         paymentRequest.getAmount(),
                         paymentRequest.getCurrency(),
                         paymentRequest.getCustomerPhone(),
@@ -84,6 +144,7 @@ public class MomoPaymentService {
             } else {
                 log.warn("Payment request failed with status: {} for Order ID: {}",
                         response.getStatusCode(), paymentRequest.getOrderId());
+                markFailed(payment, "Payment request failed with status: " + response.getStatusCode());
 
                 return OrderPaymentResponse.createFailedResponse(
                         paymentRequest.getOrderId(),
@@ -96,6 +157,7 @@ public class MomoPaymentService {
         } catch (HttpClientErrorException e) {
             log.error("MTN MoMo API error for Order ID: {} - Status: {} - Response: {}",
                     paymentRequest.getOrderId(), e.getStatusCode(), e.getResponseBodyAsString());
+            markFailed(payment, "MTN MoMo service error: " + e.getStatusCode());
 
             return OrderPaymentResponse.createFailedResponse(
                     paymentRequest.getOrderId(),
@@ -107,6 +169,7 @@ public class MomoPaymentService {
         } catch (ResourceAccessException e) {
             log.error("Network error while processing payment for Order ID: {} - {}",
                     paymentRequest.getOrderId(), e.getMessage());
+            // MoMo may still have received the request; the settlement poll resolves it
 
             return OrderPaymentResponse.createFailedResponse(
                     paymentRequest.getOrderId(),
@@ -118,6 +181,7 @@ public class MomoPaymentService {
         } catch (Exception e) {
             log.error("Unexpected error processing payment for Order ID: {} - {}",
                     paymentRequest.getOrderId(), e.getMessage(), e);
+            // Left in progress for the settlement poll, which times it out if MoMo never got it
 
             return OrderPaymentResponse.createFailedResponse(
                     paymentRequest.getOrderId(),
@@ -129,62 +193,178 @@ public class MomoPaymentService {
     }
 
     /**
-     * Checks the status of a payment using MoMo reference ID
+     * Status of the caller's payment as recorded server-side; settlement
+     * happens in the background, never on this read
+     */
+    public OrderPaymentResponse getOrderPaymentStatus(String orderId, String momoReferenceId, Long userId) {
+        OrderPaymentEntity payment = orderPaymentRepository.findByMomoReferenceId(momoReferenceId)
+                .filter(p -> p.getOrderId().equals(orderId) && userId.equals(p.getUserId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Payment", "momoReferenceId", momoReferenceId));
+
+        OrderPaymentResponse response = OrderPaymentResponse.createStatusResponse(payment.getOrderId(),
+                payment.getMomoReferenceId(), payment.getPaymentStatus(), payment.getMomoTransactionId());
+        response.setAmount(payment.getAmount());
+        response.setCurrency(payment.getCurrency());
+        response.setPaymentInitiatedAt(payment.getPaymentInitiatedAt());
+        response.setPaymentCompletedAt(payment.getPaymentCompletedAt());
+        response.setErrorReason(payment.getErrorReason());
+        return response;
+    }
+
+    /**
+     * Polls MTN MoMo for payments still in progress and settles each one
+     * from its record: the order comes from the record, and a successful
+     * collection only counts when the paid amount covers the order total.
+     */
+    @Scheduled(fixedDelayString = "${app.momo.settle-interval-ms:30000}")
+    public void settlePendingPayments() {
+        List<OrderPaymentEntity> pending = orderPaymentRepository.findByPaymentStatusInOrderByIdAsc(
+                IN_PROGRESS, Limit.of(settleBatchSize));
+        for (OrderPaymentEntity payment : pending) {
+            try {
+                settle(payment);
+            } catch (RuntimeException e) {
+                log.error("Could not settle MoMo payment {} for Order ID: {}",
+                        payment.getMomoReferenceId(), payment.getOrderId(), e);
+            }
+        }
+    }
+
+    private void settle(OrderPaymentEntity payment) {
+        Map<String, Object> body = fetchStatus(payment.getMomoReferenceId());
+        PaymentStatus status = body == null ? PaymentStatus.UNKNOWN
+                : PaymentStatus.fromMomoStatus(body.get("status") != null ? body.get("status").toString() : null);
+
+        if (!status.isFinal()) {
+            if (payment.getPaymentInitiatedAt().isBefore(LocalDateTime.now().minusMinutes(settleTimeoutMinutes))) {
+                applySettlement(payment, PaymentStatus.TIMEOUT, null, "No final status from MTN MoMo");
+            }
+            return;
+        }
+
+        String momoTransactionId = body.get("financialTransactionId") != null ?
+                body.get("financialTransactionId").toString() : null;
+        if (status.isSuccessful() && !coversOrderTotal(payment, body)) {
+            log.error("MoMo payment {} for Order ID: {} does not cover the order total and needs a refund",
+                    payment.getMomoReferenceId(), payment.getOrderId());
+            applySettlement(payment, PaymentStatus.REJECTED, momoTransactionId, "Paid amount does not cover the order total");
+            return;
+        }
+        applySettlement(payment, status, momoTransactionId, status.isSuccessful() ? null : "MTN MoMo reported " + status);
+    }
+
+    /**
+     * Records the final status once and lets the stock holds of the order
+     * follow it in the same transaction
      */
-    public OrderPaymentResponse checkOrderPaymentStatus(String orderId, String momoReferenceId) {
-        log.info("Checking payment status for Order ID: {} - MoMo Reference: {}", orderId, momoReferenceId);
+    private void applySettlement(OrderPaymentEntity payment, PaymentStatus status,
+                                 String momoTransactionId, String errorReason) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (orderPaymentRepository.settle(payment.getId(), IN_PROGRESS, status, momoTransactionId,
+                    errorReason, LocalDateTime.now()) == 1) {
+                log.info("Payment settled for Order ID: {} - Status: {}", payment.getOrderId(), status);
+                eventPublisher.publishEvent(new OrderPaymentSettledEvent(this,
+                        Long.valueOf(payment.getOrderId()), status.isSuccessful()));
+            }
+        });
+    }
 
+    private boolean coversOrderTotal(OrderPaymentEntity payment, Map<String, Object> body) {
+        BigDecimal paid;
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + authService.getAccessToken());
-            headers.set("X-Target-Environment", environment);
-            headers.set("Ocp-Apim-Subscription-Key", apiKey);
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            paid = new BigDecimal(String.valueOf(body.get("amount")));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return payment.getCurrency().equals(body.get("currency"))
+                && paid.compareTo(payment.getAmount()) >= 0
+                && orderRepository.findById(Long.valueOf(payment.getOrderId()))
+                        .map(order -> paid.compareTo(order.getTotal()) >= 0)
+                        .orElse(false);
+    }
 
+    /**
+     * Fetches the MoMo status of a collection; null when MoMo does not know it
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> fetchStatus(String momoReferenceId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + authService.getAccessToken());
+        headers.set("X-Target-Environment", environment);
+        headers.set("Ocp-Apim-Subscription-Key", apiKey);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        try {
             ResponseEntity<Map> response = restTemplate.exchange(
                     baseUrl + "/collection/v1_0/requesttopay/" + momoReferenceId,
                     HttpMethod.GET,
                     new HttpEntity<>(headers),
                     Map.class
             );
-
-            if (response.getBody() != null) {
-                Map<String, Object> body = response.getBody();
-
-                String statusStr = body.get("status") != null ? body.get("status").toString() : "UNKNOWN";
-                PaymentStatus status = PaymentStatus.fromMomoStatus(statusStr);
-
-                String momoTransactionId = body.get("financialTransactionId") != null ?
-                        body.get("financialTransactionId").toString() : null;
-
-                log.info("Payment status retrieved for Order ID: {} - Status: {}", orderId, status);
-
-                return OrderPaymentResponse.createStatusResponse(orderId, momoReferenceId, status, momoTransactionId);
-            } else {
-                log.warn("Empty response body when checking payment status for Order ID: {}", orderId);
-                return OrderPaymentResponse.createStatusResponse(orderId, momoReferenceId, PaymentStatus.UNKNOWN, null);
-            }
-
+            return response.getBody();
         } catch (HttpClientErrorException e) {
-            log.error("Error checking payment status for Order ID: {} - Status: {} - Response: {}",
-                    orderId, e.getStatusCode(), e.getResponseBodyAsString());
+            log.warn("Error checking payment status for MoMo Reference: {} - Status: {} - Response: {}",
+                    momoReferenceId, e.getStatusCode(), e.getResponseBodyAsString());
+            return null;
+        }
+    }
 
-            return OrderPaymentResponse.createStatusResponse(orderId, momoReferenceId, PaymentStatus.FAILED, null);
+    /**
+     * The order when it belongs to the user, otherwise null
+     */
+    private Order findOwnOrder(String orderId, Long userId) {
+        try {
+            return orderRepository.findById(Long.valueOf(orderId))
+                    .filter(order -> order.getUser().getId().equals(userId))
+                    .orElse(null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Unexpected error checking payment status for Order ID: {} - {}", orderId, e.getMessage(), e);
-            return OrderPaymentResponse.createStatusResponse(orderId, momoReferenceId, PaymentStatus.UNKNOWN, null);
+    /**
+     * Records the collection as pending before it is sent to MoMo; a failed
+     * earlier attempt for the order is replaced. Null when a concurrent
+     * request recorded a payment for the order first.
+     */
+    private OrderPaymentEntity recordPayment(OrderPaymentEntity previous, OrderPaymentRequest paymentRequest,
+                                             String referenceId, String externalId, Long userId) {
+        if (previous != null) {
+            orderPaymentRepository.delete(previous);
+        }
+        OrderPaymentEntity payment = OrderPaymentEntity.fromPaymentRequest(paymentRequest, referenceId);
+        payment.setExternalId(externalId);
+        payment.setUserId(userId);
+        try {
+            return orderPaymentRepository.saveAndFlush(payment);
+        } catch (DataIntegrityViolationException e) {
+            return null;
         }
     }
 
+    private void markFailed(OrderPaymentEntity payment, String errorReason) {
+        if (payment == null) return;
+        transactionTemplate.executeWithoutResult(tx -> orderPaymentRepository.settle(payment.getId(), IN_PROGRESS,
+                PaymentStatus.FAILED, null, errorReason, LocalDateTime.now()));
+    }
+
+    private static OrderPaymentResponse rejected(OrderPaymentRequest paymentRequest, String errorReason) {
+        return OrderPaymentResponse.createFailedResponse(
+                paymentRequest.getOrderId(),
+                errorReason,
+                paymentRequest.getCustomerPhone(),
+                paymentRequest.getCustomerName()
+        );
+    }
+
     /**
      * Creates the request body for MTN MoMo payment request
      */
-    private Map<String, Object> createMomoRequestBody(OrderPaymentRequest paymentRequest, String referenceId) {
+    private Map<String, Object> createMomoRequestBody(OrderPaymentRequest paymentRequest, String externalId) {
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("amount", paymentRequest.getAmount().toString());
         requestBody.put("currency", paymentRequest.getCurrency());
-        requestBody.put("externalId", paymentRequest.getExternalId());
+        requestBody.put("externalId", externalId);
 
         // Customer (payer) details
         Map<String, String> payer = new HashMap<>();
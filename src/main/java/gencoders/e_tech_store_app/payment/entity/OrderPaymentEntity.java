@@ -29,6 +29,9 @@ public class OrderPaymentEntity {
     @Column(name = "order_id", nullable = false, unique = true)
     private String orderId;
 
+    @Column(name = "user_id")
+    private Long userId;
+
     @Column(name = "momo_reference_id", unique = true)
     private String momoReferenceId;
 
@@ -0,0 +1,35 @@
+package gencoders.e_tech_store_app.payment.entity;
+
+import gencoders.e_tech_store_app.payment.Mtn.PaymentStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderPaymentRepository extends JpaRepository<OrderPaymentEntity, Long> {
+
+    Optional<OrderPaymentEntity> findByOrderId(String orderId);
+
+    Optional<OrderPaymentEntity> findByMomoReferenceId(String momoReferenceId);
+
+    // Settlement poll: served by the partial index on in-progress payments, oldest first
+    List<OrderPaymentEntity> findByPaymentStatusInOrderByIdAsc(Collection<PaymentStatus> statuses, Limit limit);
+
+    // Compare-and-set on the payment status: a payment is settled exactly once
+    @Modifying
+    @Query("""
+           UPDATE OrderPaymentEntity p
+           SET p.paymentStatus = :to, p.momoTransactionId = :momoTransactionId, p.errorReason = :errorReason,
+               p.paymentCompletedAt = :now, p.updatedAt = :now
+           WHERE p.id = :id AND p.paymentStatus IN :from
+           """)
+    int settle(Long id, Collection<PaymentStatus> from, PaymentStatus to,
+               String momoTransactionId, String errorReason, LocalDateTime now);
+}
@@ -14,7 +14,7 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-class BatteryCapacityOption {
+public class BatteryCapacityOption {
     @Id
     @GeneratedValue
     private Long id;
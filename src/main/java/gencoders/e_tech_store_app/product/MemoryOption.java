@@ -13,7 +13,7 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-class MemoryOption {
+public class MemoryOption {
     @Id
     @GeneratedValue
     private Long id;
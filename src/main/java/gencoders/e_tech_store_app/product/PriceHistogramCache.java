@@ -0,0 +1,48 @@
+package gencoders.e_tech_store_app.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gencoders.e_tech_store_app.product.catalog.CatalogFacet;
+import gencoders.e_tech_store_app.product.catalog.CatalogQuery;
+import gencoders.e_tech_store_app.product.catalog.CatalogVersion;
+import gencoders.e_tech_store_app.product.catalog.PriceHistogram;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Price histograms cached per filter signature. The catalog version is part
+ * of the key, so a catalog change makes every cached histogram unreachable
+ * and the old entries simply age out. Statistics are published as
+ * {@code cache.*} meters tagged {@code cache=product.price-histogram}.
+ */
+@Component
+public class PriceHistogramCache {
+
+    private record Key(String version, Map<CatalogFacet, String> facets, String search, int buckets) {}
+
+    private final CatalogVersion catalogVersion;
+    private final Cache<Key, PriceHistogram> histograms;
+
+    public PriceHistogramCache(CatalogVersion catalogVersion, MeterRegistry meterRegistry,
+                               @Value("${app.price-histogram.cache-size:2000}") long maxSize,
+                               @Value("${app.price-histogram.ttl-seconds:600}") long ttlSeconds) {
+        this.catalogVersion = catalogVersion;
+        this.histograms = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, histograms, "product.price-histogram");
+    }
+
+    public PriceHistogram get(CatalogQuery query, String search, int buckets, Supplier<PriceHistogram> loader) {
+        Key key = new Key(catalogVersion.etag(), query.facetValues(), search, buckets);
+        return histograms.get(key, k -> loader.get());
+    }
+}
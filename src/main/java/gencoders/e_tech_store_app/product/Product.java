@@ -49,6 +49,10 @@ public class Product {
     @Builder.Default
     private Integer stockQuantity = 0;
 
+    // Alert when stock drops to this level; null means app.low-stock.default-threshold
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
     // ─── CATEGORY ────────────────────────────────────────────────
     @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties("products")
@@ -0,0 +1,24 @@
+package gencoders.e_tech_store_app.product;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published whenever a product is created, modified or removed so that
+ * in-memory catalog structures can refresh the affected entry once the
+ * surrounding transaction commits.
+ */
+@Getter
+public class ProductChangedEvent extends ApplicationEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Long productId;
+    private final Type type;
+
+    public ProductChangedEvent(Object source, Long productId, Type type) {
+        super(source);
+        this.productId = productId;
+        this.type = type;
+    }
+}
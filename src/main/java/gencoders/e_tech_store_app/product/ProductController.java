@@ -1,15 +1,30 @@
 package gencoders.e_tech_store_app.product;
 
+import gencoders.e_tech_store_app.config.ExportFormat;
+import gencoders.e_tech_store_app.product.bulk.BulkPriceRequest;
+import gencoders.e_tech_store_app.product.bulk.BulkPriceResult;
+import gencoders.e_tech_store_app.product.bulk.BulkPricingService;
+import gencoders.e_tech_store_app.product.bulk.ImportFormat;
+import gencoders.e_tech_store_app.product.bulk.ProductImportReport;
+import gencoders.e_tech_store_app.product.bulk.ProductExportService;
+import gencoders.e_tech_store_app.product.bulk.ProductImportService;
+import gencoders.e_tech_store_app.product.inventory.InventorySnapshot;
+import gencoders.e_tech_store_app.product.inventory.InventoryStatistics;
+import gencoders.e_tech_store_app.product.inventory.StockTimeline;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -18,10 +33,14 @@ import java.util.List;
 public class  ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final BulkPricingService bulkPricingService;
+    private final InventoryStatistics inventoryStatistics;
 
     // Public endpoints
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<ProductPreviewDto>> getAllProducts() {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
@@ -32,8 +51,8 @@ public class  ProductController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductDetailSnapshot> getProductById(@PathVariable Long id) {
+        return ResponseEntity.ok(productService.viewProduct(id));
     }
 
     @GetMapping("/search")
@@ -41,20 +60,36 @@ public class  ProductController {
         return ResponseEntity.ok(productService.searchProducts(query));
     }
 
+    @GetMapping("/search/paged")
+    public ResponseEntity<Page<Product>> searchProductsPaged(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.searchProducts(query, page, size));
+    }
+
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<List<Product>> fuzzySearchProducts(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productService.fuzzySearchProducts(query, limit));
+    }
+
     @GetMapping("/new-arrivals")
-    public ResponseEntity<List<Product>> getNewArrivals() {
+    public ResponseEntity<List<ProductPreviewDto>> getNewArrivals() {
         return ResponseEntity.ok(productService.getNewArrivals());
     }
 
     @GetMapping("/discounted")
-    public ResponseEntity<List<Product>> getDiscountedProducts() {
+    public ResponseEntity<List<ProductPreviewDto>> getDiscountedProducts() {
         return ResponseEntity.ok(productService.getDiscountedProducts());
     }
 
     // Admin-only endpoints
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Product> createProduct(@Valid @RequestPart ProductRequest request, @RequestPart List<MultipartFile> images) {
+    public ResponseEntity<Product> createProduct(@Valid @RequestPart ProductRequest request,
+                                                 @RequestPart(required = false) List<MultipartFile> images) {
         return ResponseEntity.ok(productService.createProduct(request, images));
     }
 
@@ -94,19 +129,111 @@ public class  ProductController {
         return ResponseEntity.ok(productService.applyDiscount(id, discountPercentage));
     }
 
+    /**
+     * Discount or reprice a selection of products in one statement
+     */
+    @PostMapping("/admin/bulk-price")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkPriceResult> bulkUpdatePrices(@Valid @RequestBody BulkPriceRequest request) {
+        return ResponseEntity.ok(bulkPricingService.apply(request));
+    }
+
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Product>> getAllProductsForAdmin() {
         return ResponseEntity.ok(productService.getAllProductsForAdmin());
     }
 
+    /**
+     * Admin product search. Offset paging by default; passing a cursor
+     * (empty for the first window) switches to keyset pagination.
+     */
+    @GetMapping("/admin/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> searchProductsAdmin(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        if (cursor != null) {
+            return ResponseEntity.ok(productService.searchProductsAdminByCursor(
+                    name, minPrice, maxPrice, categoryId, active, cursor, size, sortBy, sortDir, withTotal));
+        }
+        return ResponseEntity.ok(productService.searchProductsAdmin(
+                name, minPrice, maxPrice, categoryId, active, page, size, sortBy, sortDir));
+    }
+
+    /**
+     * Inventory totals for the dashboard, overall and per category, served from memory
+     */
+    @GetMapping("/admin/inventory-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<InventorySnapshot> getInventoryStatistics() {
+        return ResponseEntity.ok(inventoryStatistics.snapshot());
+    }
+
+    /**
+     * Stock movements of a product from the inventory ledger, newest first
+     */
+    @GetMapping("/admin/{id}/stock-timeline")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StockTimeline> getStockTimeline(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(productService.getStockTimeline(id, before, limit));
+    }
+
     @GetMapping("/admin/low-stock")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Product>> getLowStockProducts(
-            @RequestParam(defaultValue = "5") int threshold) {
+            @RequestParam(required = false) Integer threshold) {
         return ResponseEntity.ok(productService.getLowStockProducts(threshold));
     }
 
+    @PatchMapping("/{id}/low-stock-threshold")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Product> updateLowStockThreshold(
+            @PathVariable Long id, @RequestParam(required = false) Integer threshold) {
+        return ResponseEntity.ok(productService.updateLowStockThreshold(id, threshold));
+    }
+
+    /**
+     * Bulk import from a CSV or NDJSON upload; rows are validated individually
+     */
+    @PostMapping(value = "/admin/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportReport> importProducts(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) String format) throws IOException {
+
+        ImportFormat importFormat = ImportFormat.resolve(format, file.getOriginalFilename());
+        return ResponseEntity.ok(productImportService.importProducts(file.getInputStream(), importFormat));
+    }
+
+    /**
+     * Full product table as CSV or NDJSON, streamed and optionally gzip-compressed
+     */
+    @GetMapping("/admin/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, exportFormat.attachment("products", gzip))
+                .contentType(exportFormat.mediaType(gzip))
+                .body(out -> productExportService.exportProducts(out, exportFormat, gzip));
+    }
+
     @PostMapping(value = "/{id}/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Product> addProductImages(
@@ -0,0 +1,76 @@
+package gencoders.e_tech_store_app.product;
+
+import gencoders.e_tech_store_app.exception.InvalidCursorException;
+import gencoders.e_tech_store_app.product.catalog.CatalogEntry;
+import gencoders.e_tech_store_app.product.catalog.CatalogIndex;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset position in a product listing: the sort key and id of the last row
+ * already returned. Clients only ever see the opaque {@link #encode()}d form.
+ */
+public record ProductCursor(String sortBy, boolean ascending, Comparable<?> value, Long id) {
+
+    private static final String VERSION = "p1";
+
+    private static final Map<String, Function<Product, Comparable<?>>> EXTRACTORS = Map.of(
+            "id", Product::getId,
+            "name", Product::getName,
+            "price", Product::getPrice,
+            "discountPrice", Product::getDiscountPrice,
+            "stockQuantity", Product::getStockQuantity,
+            "createdAt", Product::getCreatedAt,
+            "updatedAt", Product::getUpdatedAt
+    );
+
+    private static final Map<String, Function<String, Comparable<?>>> PARSERS = Map.of(
+            "id", Long::valueOf,
+            "name", s -> s,
+            "price", BigDecimal::new,
+            "discountPrice", BigDecimal::new,
+            "stockQuantity", Integer::valueOf,
+            "createdAt", LocalDateTime::parse,
+            "updatedAt", LocalDateTime::parse
+    );
+
+    public static boolean supports(String sortBy) {
+        return EXTRACTORS.containsKey(sortBy);
+    }
+
+    /** Position just after the given row. */
+    public static ProductCursor after(Product last, String sortBy, boolean ascending) {
+        return new ProductCursor(sortBy, ascending, EXTRACTORS.get(sortBy).apply(last), last.getId());
+    }
+
+    /** Position just after the given catalog index entry. */
+    public static ProductCursor after(CatalogEntry last, String sortBy, boolean ascending) {
+        return new ProductCursor(sortBy, ascending, CatalogIndex.sortValue(last, sortBy), last.id());
+    }
+
+    public String encode() {
+        String raw = String.join(":", VERSION, sortBy, ascending ? "a" : "d", id.toString(),
+                value == null ? "" : "=" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || !supports(parts[1])) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            Comparable<?> value = parts[4].isEmpty() ? null : PARSERS.get(parts[1]).apply(parts[4].substring(1));
+            return new ProductCursor(parts[1], "a".equals(parts[2]), value, Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package gencoders.e_tech_store_app.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gencoders.e_tech_store_app.category.CategoryChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of product-detail snapshots.
+ * <p>
+ * Unknown or inactive ids are cached as absent for a short time, so repeated
+ * lookups of missing products do not reach the database. Entries are dropped
+ * by id after a product change commits, ahead of the other catalog listeners
+ * so the catalog version is never bumped while a stale snapshot is cached.
+ * Statistics are published as {@code cache.*} meters tagged
+ * {@code cache=product.detail} (and {@code product.detail.missing}).
+ */
+@Component
+public class ProductDetailCache {
+
+    private final Cache<Long, ProductDetailSnapshot> found;
+    private final Cache<Long, Boolean> missing;
+
+    public ProductDetailCache(MeterRegistry meterRegistry,
+                              @Value("${app.product-cache.max-size:10000}") long maxSize,
+                              @Value("${app.product-cache.missing-max-size:50000}") long missingMaxSize,
+                              @Value("${app.product-cache.missing-ttl-seconds:300}") long missingTtlSeconds) {
+        this.found = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(missingMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(missingTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, found, "product.detail");
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, "product.detail.missing");
+    }
+
+    /** Cached snapshot, or the loader's result; an empty result is remembered as missing. */
+    public Optional<ProductDetailSnapshot> get(Long id, Function<Long, Optional<ProductDetailSnapshot>> loader) {
+        ProductDetailSnapshot cached = found.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (missing.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+        // Load under the missing entry's lock: an invalidate racing the load waits
+        // for it and then drops whatever it cached, so a product activated meanwhile
+        // is never remembered as missing
+        ProductDetailSnapshot[] loaded = new ProductDetailSnapshot[1];
+        missing.asMap().compute(id, (key, absent) -> {
+            if (absent != null) return absent;
+            loaded[0] = found.get(key, k -> loader.apply(k).orElse(null));
+            return loaded[0] == null ? Boolean.TRUE : null;
+        });
+        return Optional.ofNullable(loaded[0]);
+    }
+
+    public void invalidate(Long id) {
+        found.invalidate(id);
+        missing.invalidate(id);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        found.invalidateAll(event.getProductIds());
+        missing.invalidateAll(event.getProductIds());
+    }
+
+    /** Snapshots embed the category name and slug. */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        found.invalidateAll();
+    }
+}
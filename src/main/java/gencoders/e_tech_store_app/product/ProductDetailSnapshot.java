@@ -0,0 +1,78 @@
+package gencoders.e_tech_store_app.product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable product-detail view, safe to share across requests from the
+ * detail cache. Built inside the loading transaction, so it holds no
+ * Hibernate proxies or lazy collections.
+ */
+public record ProductDetailSnapshot(
+        Long id,
+        String name,
+        String description,
+        String brand,
+        String model,
+        BigDecimal price,
+        BigDecimal discountPrice,
+        BigDecimal discountedPrice,
+        Integer stockQuantity,
+        boolean inStock,
+        boolean featured,
+        String imageUrl,
+        String mainImage,
+        List<String> additionalImages,
+        CategoryRef category,
+        String memory,
+        String protection,
+        String screenType,
+        String screenSize,
+        String battery,
+        Map<String, String> specifications,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+
+    public record CategoryRef(Long id, String name, String slug) {}
+
+    public static ProductDetailSnapshot from(Product p) {
+        return new ProductDetailSnapshot(
+                p.getId(),
+                p.getName(),
+                p.getDescription(),
+                p.getBrand(),
+                p.getModel(),
+                p.getPrice(),
+                p.getDiscountPrice(),
+                p.getDiscountedPrice(),
+                p.getStockQuantity(),
+                p.isInStock(),
+                Boolean.TRUE.equals(p.getFeatured()),
+                p.getImageUrl(),
+                p.getMainImage(),
+                p.getAdditionalImages().stream().sorted().toList(),
+                p.getCategory() != null
+                        ? new CategoryRef(p.getCategory().getId(), p.getCategory().getName(), p.getCategory().getSlug())
+                        : null,
+                p.getMemory() != null ? p.getMemory().getValue() : null,
+                p.getProtection() != null ? p.getProtection().getValue() : null,
+                p.getScreenType() != null ? p.getScreenType().getValue() : null,
+                p.getScreenSize(),
+                p.getBatteryCapacity() != null ? p.getBatteryCapacity().getValue() : null,
+                p.getSpecifications().stream()
+                        .filter(spec -> spec.getSpecKey() != null && spec.getSpecValue() != null)
+                        .collect(Collectors.toMap(
+                                ProductSpecification::getSpecKey,
+                                ProductSpecification::getSpecValue,
+                                (first, second) -> first,
+                                TreeMap::new)),
+                p.getCreatedAt(),
+                p.getUpdatedAt()
+        );
+    }
+}
@@ -1,20 +1,54 @@
 package gencoders.e_tech_store_app.product;
 
+import gencoders.e_tech_store_app.product.catalog.CatalogEntry;
 import lombok.Data;
 
 import java.math.BigDecimal;
 
+/**
+ * Product card: the columns a listing tile renders. Listing queries select it
+ * with a constructor expression, so no entity (and none of its associations)
+ * is loaded.
+ */
 @Data
 public class ProductPreviewDto {
     private Long id;
     private String name;
     private String imageUrl;
     private BigDecimal price;
+    private BigDecimal discountPrice;
+    private String brand;
+    private Integer stockQuantity;
+    private Boolean featured;
+
+    /** Used by JPQL {@code SELECT new} projections. */
+    public ProductPreviewDto(Long id, String name, String imageUrl, BigDecimal price,
+                             BigDecimal discountPrice, String brand, Integer stockQuantity, Boolean featured) {
+        this.id = id;
+        this.name = name;
+        this.imageUrl = imageUrl;
+        this.price = price;
+        this.discountPrice = discountPrice;
+        this.brand = brand;
+        this.stockQuantity = stockQuantity;
+        this.featured = featured;
+    }
 
     public ProductPreviewDto(Product product) {
-        this.id = product.getId();
-        this.name = product.getName();
-        this.imageUrl = product.getImageUrl();
-        this.price = product.getPrice();
+        this(product.getId(), product.getName(), product.getImageUrl(), product.getPrice(),
+                product.getDiscountPrice(), product.getBrand(), product.getStockQuantity(), product.getFeatured());
+    }
+
+    public ProductPreviewDto(CatalogEntry entry) {
+        this(entry.id(), entry.name(), entry.imageUrl(), entry.price(),
+                entry.discountPrice(), entry.brand(), entry.stockQuantity(), entry.featured());
+    }
+
+    public BigDecimal getDiscountedPrice() {
+        return discountPrice != null && discountPrice.compareTo(BigDecimal.ZERO) > 0 ? discountPrice : price;
+    }
+
+    public boolean isInStock() {
+        return stockQuantity != null && stockQuantity > 0;
     }
 }
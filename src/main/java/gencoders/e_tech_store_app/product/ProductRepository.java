@@ -1,22 +1,38 @@
 package gencoders.e_tech_store_app.product;
 
-import gencoders.e_tech_store_app.category.Category;
+import gencoders.e_tech_store_app.product.bulk.ProductExportRow;
+import gencoders.e_tech_store_app.product.catalog.FacetGroup;
+import gencoders.e_tech_store_app.product.catalog.PriceCount;
+import gencoders.e_tech_store_app.product.inventory.InventoryFigure;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    // Product card projection shared by the listing queries below
+    String PREVIEW_SELECT = "SELECT new gencoders.e_tech_store_app.product.ProductPreviewDto(" +
+            "p.id, p.name, p.imageUrl, p.price, p.discountPrice, p.brand, p.stockQuantity, p.featured) " +
+            "FROM Product p ";
 
     // Public queries (only active products)
     List<Product> findByActiveTrue();
@@ -42,9 +58,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Override
     Optional<Product> findById(Long id);
 
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity <= :threshold")
-    List<Product> findByStockQuantityLessThanEqual(int threshold);
-
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId")
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
@@ -54,6 +67,20 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :amount WHERE p.id = :id")
     int adjustStockQuantity(Long id, int amount);
 
+    // Conditional decrement: 0 rows when the product is inactive or short, so concurrent checkouts cannot oversell
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.active = true AND p.stockQuantity >= :quantity")
+    int decrementStockIfAvailable(Long id, int quantity, LocalDateTime now);
+
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.id = :id AND p.active = true")
+    Optional<Integer> findActiveStockQuantity(Long id);
+
+    // Admin edits that overwrite the stock: the row is locked so the recorded change matches the write
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(Long id);
+
     @Modifying
     @Transactional
     @Query("UPDATE Product p SET p.price = :newPrice, p.updatedAt = :now WHERE p.id = :id")
@@ -78,15 +105,30 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                       Boolean active,
                                       Pageable pageable);
 
-    // Analytics queries
-    @Query("SELECT COUNT(p) FROM Product p WHERE p.active = true")
-    long countActiveProducts();
+    // Low-stock report before the monitor has its levels (see LowStockMonitor); served by idx_products_active_stock
+    @Query("""
+           SELECT p.id FROM Product p
+           WHERE p.active = true AND p.stockQuantity <= :threshold
+           ORDER BY p.stockQuantity, p.id
+           """)
+    List<Long> findActiveIdsWithStockAtMost(int threshold);
 
-    @Query("SELECT SUM(p.stockQuantity) FROM Product p WHERE p.active = true")
-    Long getTotalInventoryCount();
+    @Query("""
+           SELECT p.id FROM Product p
+           WHERE p.active = true AND p.stockQuantity <= COALESCE(p.lowStockThreshold, :defaultThreshold)
+           ORDER BY p.stockQuantity, p.id
+           """)
+    List<Long> findActiveIdsAtOrBelowThreshold(int defaultThreshold);
+
+    // Inventory statistics: per-product figures for periodic reconciliation (see InventoryStatistics)
+    @Query("""
+           SELECT new gencoders.e_tech_store_app.product.inventory.InventoryFigure(
+               p.id, c.id, c.name, p.stockQuantity, p.price)
+           FROM Product p LEFT JOIN p.category c
+           WHERE p.active = true
+           """)
+    List<InventoryFigure> findInventoryFigures();
 
-    @Query("SELECT COALESCE(SUM(p.stockQuantity * p.price), 0) FROM Product p WHERE p.active = true")
-    BigDecimal getTotalInventoryValue();
     @Query("SELECT p FROM Product p WHERE " +
             "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand)) AND " +
             "(:memory IS NULL OR LOWER(p.memory) = LOWER(:memory)) AND " +
@@ -138,5 +180,214 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                  String q,
                                  Pageable pageable);
 
-    List<Product> findTop4ByCategoryAndIdNot(Category category, Long id, Limit limit);
+    // Facet counts before the catalog index is built: one row per combination of facet values
+    @Query("""
+           SELECT new gencoders.e_tech_store_app.product.catalog.FacetGroup(
+               c.name, p.brand, m.value, pr.value, st.value, p.screenSize, b.value, COUNT(p))
+           FROM Product p
+           LEFT JOIN p.category c
+           LEFT JOIN p.memory m
+           LEFT JOIN p.protection pr
+           LEFT JOIN p.screenType st
+           LEFT JOIN p.batteryCapacity b
+           WHERE p.active = true
+             AND (:minPrice IS NULL OR p.price >= :minPrice)
+             AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+             AND (:q IS NULL OR
+                    LOWER(p.name) LIKE LOWER(CONCAT('%',:q,'%')) OR
+                    LOWER(p.description) LIKE LOWER(CONCAT('%',:q,'%')))
+           GROUP BY c.name, p.brand, m.value, pr.value, st.value, p.screenSize, b.value
+           """)
+    List<FacetGroup> countFacetGroups(BigDecimal minPrice, BigDecimal maxPrice, String q);
+
+    // Price histogram before the catalog index is built: distinct effective prices with their counts.
+    // Facet values are passed trimmed and lower-cased (CatalogQuery.facetValues).
+    @Query("""
+           SELECT new gencoders.e_tech_store_app.product.catalog.PriceCount(
+               CASE WHEN p.discountPrice > 0 THEN p.discountPrice ELSE p.price END, COUNT(p))
+           FROM Product p
+           LEFT JOIN p.category c
+           LEFT JOIN p.memory m
+           LEFT JOIN p.protection pr
+           LEFT JOIN p.screenType st
+           LEFT JOIN p.batteryCapacity b
+           WHERE p.active = true
+             AND (:category IS NULL OR LOWER(TRIM(c.name)) = :category)
+             AND (:brand IS NULL OR LOWER(TRIM(p.brand)) = :brand)
+             AND (:memory IS NULL OR LOWER(TRIM(m.value)) = :memory)
+             AND (:protection IS NULL OR LOWER(TRIM(pr.value)) = :protection)
+             AND (:screenType IS NULL OR LOWER(TRIM(st.value)) = :screenType)
+             AND (:screenSize IS NULL OR LOWER(TRIM(p.screenSize)) = :screenSize)
+             AND (:battery IS NULL OR LOWER(TRIM(b.value)) = :battery)
+             AND (:q IS NULL OR
+                    LOWER(p.name) LIKE CONCAT('%',:q,'%') OR
+                    LOWER(p.description) LIKE CONCAT('%',:q,'%'))
+           GROUP BY CASE WHEN p.discountPrice > 0 THEN p.discountPrice ELSE p.price END
+           ORDER BY CASE WHEN p.discountPrice > 0 THEN p.discountPrice ELSE p.price END
+           """)
+    List<PriceCount> countEffectivePrices(String category, String brand, String memory, String protection,
+                                          String screenType, String screenSize, String battery, String q);
+
+    // Same-category fallback for related products while the neighbor index is computed
+    @Query(PREVIEW_SELECT + "WHERE p.category.id = :categoryId AND p.id <> :id AND p.active = true ORDER BY p.id")
+    List<ProductPreviewDto> findSameCategoryPreviews(Long categoryId, Long id, Limit limit);
+
+    // Typo-tolerant search backed by the pg_trgm GIN indexes (PostgreSQL only)
+    @Query(value = """
+           SELECT p.* FROM products p
+           WHERE p.active = true
+             AND (:q <% LOWER(p.name) OR :q <% LOWER(p.brand) OR :q <% LOWER(p.model))
+           ORDER BY GREATEST(word_similarity(:q, LOWER(p.name)),
+                             word_similarity(:q, COALESCE(LOWER(p.brand), '')),
+                             word_similarity(:q, COALESCE(LOWER(p.model), ''))) DESC
+           LIMIT :limit
+           """, nativeQuery = true)
+    List<Product> findSimilarActiveProducts(String q, int limit);
+
+    @Query(value = """
+           SELECT p.* FROM products p
+           WHERE p.active = true
+             AND (:q <% LOWER(p.name) OR :q <% LOWER(p.brand) OR :q <% LOWER(p.model))
+           ORDER BY GREATEST(word_similarity(:q, LOWER(p.name)),
+                             word_similarity(:q, COALESCE(LOWER(p.brand), '')),
+                             word_similarity(:q, COALESCE(LOWER(p.model), ''))) DESC, p.id
+           """,
+           countQuery = """
+           SELECT COUNT(*) FROM products p
+           WHERE p.active = true
+             AND (:q <% LOWER(p.name) OR :q <% LOWER(p.brand) OR :q <% LOWER(p.model))
+           """,
+           nativeQuery = true)
+    Page<Product> findSimilarActiveProducts(String q, Pageable pageable);
+
+    // In-memory catalog loading (category, option values and specifications fetched up front)
+    @Query("""
+           SELECT p FROM Product p
+           LEFT JOIN FETCH p.category
+           LEFT JOIN FETCH p.memory
+           LEFT JOIN FETCH p.protection
+           LEFT JOIN FETCH p.screenType
+           LEFT JOIN FETCH p.batteryCapacity
+           LEFT JOIN FETCH p.specifications
+           WHERE p.active = true
+           """)
+    List<Product> findAllActiveForCatalog();
+
+    @Query("""
+           SELECT p FROM Product p
+           LEFT JOIN FETCH p.category
+           LEFT JOIN FETCH p.memory
+           LEFT JOIN FETCH p.protection
+           LEFT JOIN FETCH p.screenType
+           LEFT JOIN FETCH p.batteryCapacity
+           LEFT JOIN FETCH p.specifications
+           WHERE p.id = :id
+           """)
+    Optional<Product> findForCatalogById(Long id);
+
+    @Query("""
+           SELECT p FROM Product p
+           LEFT JOIN FETCH p.category
+           LEFT JOIN FETCH p.memory
+           LEFT JOIN FETCH p.protection
+           LEFT JOIN FETCH p.screenType
+           LEFT JOIN FETCH p.batteryCapacity
+           LEFT JOIN FETCH p.specifications
+           WHERE p.id IN :ids
+           """)
+    List<Product> findForCatalogByIdIn(Collection<Long> ids);
+
+    // Product detail snapshot: everything the detail page renders in one statement
+    @Query("""
+           SELECT p FROM Product p
+           LEFT JOIN FETCH p.category
+           LEFT JOIN FETCH p.memory
+           LEFT JOIN FETCH p.protection
+           LEFT JOIN FETCH p.screenType
+           LEFT JOIN FETCH p.batteryCapacity
+           LEFT JOIN FETCH p.specifications
+           LEFT JOIN FETCH p.additionalImages
+           WHERE p.id = :id AND p.active = true
+           """)
+    Optional<Product> findDetailById(Long id);
+
+    // Admin export: forward-only projection, rows are fetched from the server in batches
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+           SELECT new gencoders.e_tech_store_app.product.bulk.ProductExportRow(
+               p.id, p.name, p.brand, p.model, c.id, c.name, p.price, p.discountPrice,
+               p.stockQuantity, p.active, p.featured, p.imageUrl, p.createdAt, p.updatedAt)
+           FROM Product p LEFT JOIN p.category c
+           ORDER BY p.id
+           """)
+    Stream<ProductExportRow> streamForExport();
+
+    // Listing projections: one statement per page, no entity or association loading
+    @Query(PREVIEW_SELECT + "WHERE p.active = true")
+    List<ProductPreviewDto> findActivePreviews();
+
+    @Query(PREVIEW_SELECT + "WHERE p.id IN :ids AND p.active = true")
+    List<ProductPreviewDto> findActivePreviewsByIds(Collection<Long> ids);
+
+    @Query(PREVIEW_SELECT + "WHERE p.featured = true")
+    List<ProductPreviewDto> findFeaturedPreviews();
+
+    @Query(PREVIEW_SELECT + "WHERE p.active = true ORDER BY p.createdAt DESC")
+    List<ProductPreviewDto> findNewestActivePreviews(Limit limit);
+
+    @Query(PREVIEW_SELECT + "WHERE p.discountPrice > 0 AND p.active = true")
+    List<ProductPreviewDto> findDiscountedActivePreviews();
+
+    @Query(value = PREVIEW_SELECT + """
+           LEFT JOIN p.category c
+           LEFT JOIN p.memory m
+           LEFT JOIN p.protection pr
+           LEFT JOIN p.screenType st
+           LEFT JOIN p.batteryCapacity b
+           WHERE p.active = true
+             AND (:category IS NULL OR LOWER(c.name)  = LOWER(:category))
+             AND (:brand    IS NULL OR LOWER(p.brand) = LOWER(:brand))
+             AND (:memory   IS NULL OR LOWER(m.value) = LOWER(:memory))
+             AND (:protection IS NULL OR LOWER(pr.value) = LOWER(:protection))
+             AND (:screenType IS NULL OR LOWER(st.value) = LOWER(:screenType))
+             AND (:screenSize IS NULL OR LOWER(p.screenSize) = LOWER(:screenSize))
+             AND (:battery  IS NULL OR LOWER(b.value) = LOWER(:battery))
+             AND (:minPrice IS NULL OR p.price >= :minPrice)
+             AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+             AND (:q IS NULL OR
+                    LOWER(p.name) LIKE LOWER(CONCAT('%',:q,'%')) OR
+                    LOWER(p.description) LIKE LOWER(CONCAT('%',:q,'%')))
+           """,
+           countQuery = """
+           SELECT COUNT(p) FROM Product p
+           LEFT JOIN p.category c
+           LEFT JOIN p.memory m
+           LEFT JOIN p.protection pr
+           LEFT JOIN p.screenType st
+           LEFT JOIN p.batteryCapacity b
+           WHERE p.active = true
+             AND (:category IS NULL OR LOWER(c.name)  = LOWER(:category))
+             AND (:brand    IS NULL OR LOWER(p.brand) = LOWER(:brand))
+             AND (:memory   IS NULL OR LOWER(m.value) = LOWER(:memory))
+             AND (:protection IS NULL OR LOWER(pr.value) = LOWER(:protection))
+             AND (:screenType IS NULL OR LOWER(st.value) = LOWER(:screenType))
+             AND (:screenSize IS NULL OR LOWER(p.screenSize) = LOWER(:screenSize))
+             AND (:battery  IS NULL OR LOWER(b.value) = LOWER(:battery))
+             AND (:minPrice IS NULL OR p.price >= :minPrice)
+             AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+             AND (:q IS NULL OR
+                    LOWER(p.name) LIKE LOWER(CONCAT('%',:q,'%')) OR
+                    LOWER(p.description) LIKE LOWER(CONCAT('%',:q,'%')))
+           """)
+    Page<ProductPreviewDto> filterProductPreviews(String category,
+                                                  String brand,
+                                                  String memory,
+                                                  String protection,
+                                                  String screenType,
+                                                  String screenSize,
+                                                  String battery,
+                                                  BigDecimal minPrice,
+                                                  BigDecimal maxPrice,
+                                                  String q,
+                                                  Pageable pageable);
 }
\ No newline at end of file
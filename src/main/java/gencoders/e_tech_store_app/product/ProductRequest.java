@@ -12,7 +12,8 @@ public class ProductRequest {
     @NotNull @Positive private BigDecimal price;
     @PositiveOrZero private BigDecimal discountPrice = BigDecimal.ZERO;
     @NotNull @PositiveOrZero private Integer stockQuantity;
-    @NotBlank private String imageUrl;
+    @PositiveOrZero private Integer lowStockThreshold; // null = store default
+    private String imageUrl;        // optional on create when images are uploaded
     private Set<String> additionalImages;
     @NotNull private Long categoryId;
     private Set<ProductSpecification> specifications;
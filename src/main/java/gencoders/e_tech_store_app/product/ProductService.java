@@ -1,22 +1,54 @@
 package gencoders.e_tech_store_app.product;
 
 import gencoders.e_tech_store_app.category.CategoryService;
+import gencoders.e_tech_store_app.config.CursorPage;
+import gencoders.e_tech_store_app.exception.InvalidCursorException;
 import gencoders.e_tech_store_app.exception.ResourceNotFoundException;
+import gencoders.e_tech_store_app.product.catalog.CatalogEntry;
+import gencoders.e_tech_store_app.product.catalog.CatalogFacet;
+import gencoders.e_tech_store_app.product.catalog.CatalogIndex;
+import gencoders.e_tech_store_app.product.catalog.CatalogQuery;
+import gencoders.e_tech_store_app.product.catalog.FacetCounts;
+import gencoders.e_tech_store_app.product.catalog.PriceHistogram;
+import gencoders.e_tech_store_app.product.catalog.ProductSearchIndex;
+import gencoders.e_tech_store_app.product.catalog.RelatedProductsIndex;
+import gencoders.e_tech_store_app.product.catalog.SuggestionIndex;
+import gencoders.e_tech_store_app.product.catalog.TrigramIndex;
+import gencoders.e_tech_store_app.product.inventory.LowStockMonitor;
+import gencoders.e_tech_store_app.product.inventory.InventoryLedger;
+import gencoders.e_tech_store_app.product.inventory.MovementType;
+import gencoders.e_tech_store_app.product.inventory.StockTimeline;
+import gencoders.e_tech_store_app.product.sales.BestSellerRanking;
+import gencoders.e_tech_store_app.product.sales.ProductSalesRepository;
+import gencoders.e_tech_store_app.product.trending.TrendingEngine;
+import gencoders.e_tech_store_app.product.trending.TrendingSignal;
 import gencoders.e_tech_store_app.storage.CloudinaryService;
+import gencoders.e_tech_store_app.storage.ParallelImageUploader;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,15 +56,37 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductService {
 
+    private static final int FUZZY_FALLBACK_LIMIT = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int NEW_ARRIVALS_LIMIT = 8;
+    private static final int BEST_SELLERS_MAX_LIMIT = 50;
+    private static final int PRICE_HISTOGRAM_MAX_BUCKETS = 100;
+    private static final String PRODUCT_IMAGE_FOLDER = "product_images";
+
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
     private final CloudinaryService cloudinaryService;
+    private final ParallelImageUploader parallelImageUploader;
+    private final CatalogIndex catalogIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final TrigramIndex trigramIndex;
+    private final RelatedProductsIndex relatedProductsIndex;
+    private final BestSellerRanking bestSellerRanking;
+    private final TrendingEngine trendingEngine;
+    private final ProductDetailCache productDetailCache;
+    private final PriceHistogramCache priceHistogramCache;
+    private final LowStockMonitor lowStockMonitor;
+    private final ProductSalesRepository productSalesRepository;
+    private final InventoryLedger inventoryLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     /* ---------- Public Queries ---------- */
 
     @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        return productRepository.findByActiveTrue();
+    public List<ProductPreviewDto> getAllProducts() {
+        return productRepository.findActivePreviews();
     }
 
     @Transactional(readOnly = true)
@@ -46,39 +100,120 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
     }
 
+    /**
+     * Product detail for a shopper, served from the detail cache (no transaction
+     * or connection on a hit). Counts as a view for the trending rail.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductDetailSnapshot viewProduct(Long id) {
+        ProductDetailSnapshot snapshot = productDetailCache
+                .get(id, key -> productRepository.findDetailById(key).map(ProductDetailSnapshot::from))
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        trendingEngine.record(id, TrendingSignal.VIEW);
+        return snapshot;
+    }
+
     @Transactional(readOnly = true)
     public List<Product> searchProducts(String q) {
-        return productRepository.searchActiveProducts(q.toLowerCase());
+        List<Product> results = productSearchIndex.search(q)
+                .map(hits -> loadInOrder(hits.stream().map(ProductSearchIndex.Hit::productId).toList()))
+                .orElseGet(() -> productRepository.searchActiveProducts(q.toLowerCase()));
+        return results.isEmpty() ? fuzzySearchProducts(q, FUZZY_FALLBACK_LIMIT) : results;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Product> searchProducts(String q, int page, int size) {
+        Pageable pageable = PageRequest.of(page, pageSize(size));
+        Optional<List<ProductSearchIndex.Hit>> hits = productSearchIndex.search(q);
+        if (hits.isPresent()) {
+            return hits.get().isEmpty()
+                    ? fuzzySearchProducts(q, pageable)
+                    : pageInOrder(hits.get().stream().map(ProductSearchIndex.Hit::productId).toList(), pageable);
+        }
+
+        List<Product> all = productRepository.searchActiveProducts(q.toLowerCase());
+        List<Product> content = all.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+        return new PageImpl<>(content, pageable, all.size());
+    }
+
+    /**
+     * Typo-tolerant search over name, brand and model ranked by trigram similarity.
+     * Served from the in-memory trigram index; the pg_trgm query covers the window
+     * before the index is built.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> fuzzySearchProducts(String q, int limit) {
+        return trigramIndex.search(q, limit)
+                .map(hits -> loadInOrder(hits.stream().map(TrigramIndex.Hit::productId).toList()))
+                .orElseGet(() -> productRepository.findSimilarActiveProducts(q.toLowerCase().trim(), limit));
+    }
+
+    /** A page of the fuzzy matches, counted over all of them. */
+    private Page<Product> fuzzySearchProducts(String q, Pageable pageable) {
+        return trigramIndex.searchAll(q)
+                .map(hits -> pageInOrder(hits.stream().map(TrigramIndex.Hit::productId).toList(), pageable))
+                .orElseGet(() -> productRepository.findSimilarActiveProducts(q.toLowerCase().trim(), pageable));
+    }
+
+    private Page<Product> pageInOrder(List<Long> rankedIds, Pageable pageable) {
+        List<Long> ids = rankedIds.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(loadInOrder(ids), pageable, rankedIds.size());
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getNewArrivals() {
-        return productRepository.findTop8ByActiveTrueOrderByCreatedAtDesc();
+    public SuggestionIndex.Suggestions suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, Math.min(Math.max(limit, 1), SuggestionIndex.MAX_LIMIT));
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getFeaturedProducts() {
-        return productRepository.findByFeaturedTrue();
+    public List<ProductPreviewDto> getNewArrivals() {
+        return productRepository.findNewestActivePreviews(Limit.of(NEW_ARRIVALS_LIMIT));
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getDiscountedProducts() {
-        return productRepository.findByDiscountPriceGreaterThanAndActiveTrue(BigDecimal.ZERO);
+    public List<ProductPreviewDto> getFeaturedProducts() {
+        return productRepository.findFeaturedPreviews();
     }
 
     @Transactional(readOnly = true)
-    public Page<Product> getFilteredProducts(
+    public List<ProductPreviewDto> getDiscountedProducts() {
+        return productRepository.findDiscountedActivePreviews();
+    }
+
+    /**
+     * Product cards for the storefront listing. Pages resolved by the catalog
+     * index are built straight from its entries; the fallback is a single
+     * projection query.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductPreviewDto> getFilteredProducts(
             int page, int size, String sortBy, String sortDir,
             String category, String brand, String memory, String protection,
             String screenType, String screenSize,
             BigDecimal minPrice, BigDecimal maxPrice,
             String battery, String search) {
 
-        Sort sort = Sort.by(sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC,
-                sortBy);
+        size = pageSize(size);
+        boolean ascending = sortDir.equalsIgnoreCase("asc");
+        boolean hasSearch = search != null && !search.isBlank();
+        if (!hasSearch || productSearchIndex.isReady()) {
+            CatalogQuery query = new CatalogQuery(category, brand, memory, protection,
+                    screenType, screenSize, battery, minPrice, maxPrice);
+            Collection<Long> restrictTo = hasSearch ? searchHitIds(search) : null;
+            Optional<Page<CatalogEntry>> indexed = catalogIndex.query(
+                    query, restrictTo, page, size, sortBy, ascending);
+            if (indexed.isPresent()) {
+                return indexed.get().map(ProductPreviewDto::new);
+            }
+        }
+
+        Sort sort = Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        return productRepository.filterProducts(
+        return productRepository.filterProductPreviews(
                 category, brand, memory, protection,
                 screenType, screenSize, battery,
                 minPrice, maxPrice, search, pageable
@@ -86,12 +221,162 @@ public class ProductService {
     }
 
 
+    /**
+     * Keyset-paginated variant of {@link #getFilteredProducts}. A non-empty cursor
+     * carries its own sort key and direction; the count is skipped unless asked for.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductPreviewDto> getFilteredProductsByCursor(
+            String cursor, int size, String sortBy, String sortDir, boolean withTotal,
+            String category, String brand, String memory, String protection,
+            String screenType, String screenSize,
+            BigDecimal minPrice, BigDecimal maxPrice,
+            String battery, String search) {
+
+        size = pageSize(size);
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        String key = after != null ? after.sortBy() : sortBy;
+        boolean ascending = after != null ? after.ascending() : sortDir.equalsIgnoreCase("asc");
+        if (!ProductCursor.supports(key)) {
+            throw new InvalidCursorException("Cursor pagination is not supported for sort key: " + key);
+        }
+
+        boolean hasSearch = search != null && !search.isBlank();
+        if (!hasSearch || productSearchIndex.isReady()) {
+            CatalogQuery query = new CatalogQuery(category, brand, memory, protection,
+                    screenType, screenSize, battery, minPrice, maxPrice);
+            Collection<Long> restrictTo = hasSearch ? searchHitIds(search) : null;
+            Optional<CatalogIndex.Scroll> scroll = catalogIndex.scroll(query, restrictTo, key, ascending,
+                    after != null ? after.value() : null, after != null ? after.id() : null, size);
+            if (scroll.isPresent()) {
+                List<CatalogEntry> content = scroll.get().content();
+                String next = scroll.get().hasNext() && !content.isEmpty()
+                        ? ProductCursor.after(content.get(content.size() - 1), key, ascending).encode()
+                        : null;
+                return new CursorPage<>(content.stream().map(ProductPreviewDto::new).toList(), next,
+                        withTotal ? scroll.get().total() : null);
+            }
+        }
+
+        Specification<Product> filter = ProductSpecifications.publicFilter(category, brand, memory, protection,
+                screenType, screenSize, battery, minPrice, maxPrice, search);
+        return scrollFromDatabase(filter, after, key, ascending, size, withTotal).map(ProductPreviewDto::new);
+    }
+
+    /** Keyset-paginated admin search over all products (same filters as {@code searchProductsAdmin}). */
+    @Transactional(readOnly = true)
+    public CursorPage<Product> searchProductsAdminByCursor(
+            String name, BigDecimal minPrice, BigDecimal maxPrice, Long categoryId, Boolean active,
+            String cursor, int size, String sortBy, String sortDir, boolean withTotal) {
+
+        size = pageSize(size);
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        String key = after != null ? after.sortBy() : sortBy;
+        boolean ascending = after != null ? after.ascending() : sortDir.equalsIgnoreCase("asc");
+        if (!ProductCursor.supports(key)) {
+            throw new InvalidCursorException("Cursor pagination is not supported for sort key: " + key);
+        }
+
+        Specification<Product> filter = ProductSpecifications.adminFilter(name, minPrice, maxPrice, categoryId, active);
+        return scrollFromDatabase(filter, after, key, ascending, size, withTotal);
+    }
+
+    @Transactional(readOnly = true)
+    public FacetCounts getFacetCounts(
+            String category, String brand, String memory, String protection,
+            String screenType, String screenSize,
+            BigDecimal minPrice, BigDecimal maxPrice,
+            String battery, String search) {
+
+        CatalogQuery query = new CatalogQuery(category, brand, memory, protection,
+                screenType, screenSize, battery, minPrice, maxPrice);
+        boolean hasSearch = search != null && !search.isBlank();
+        if (!hasSearch || productSearchIndex.isReady()) {
+            Collection<Long> restrictTo = hasSearch ? searchHitIds(search) : null;
+            Optional<FacetCounts> indexed = catalogIndex.facetCounts(query, restrictTo);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
+
+        return FacetCounts.fromGroups(productRepository.countFacetGroups(
+                query.minPrice(), query.maxPrice(), hasSearch ? search.toLowerCase() : null), query);
+    }
+
+    /**
+     * Effective-price histogram for the price slider under the current filters.
+     * The price range itself is not applied, so the slider keeps its full span.
+     */
     @Transactional(readOnly = true)
-    public List<Product> getBestSellers() {
-        // Placeholder: Implement logic to fetch best-selling products (e.g., by total sales or order count)
-        // Example: return productRepository.findTop10ByOrderBySalesCountDesc();
-        // You need to add a 'salesCount' field or join with an order table in ProductRepository
-        throw new UnsupportedOperationException("getBestSellers not implemented. Define sales metric in ProductRepository.");
+    public PriceHistogram getPriceHistogram(
+            String category, String brand, String memory, String protection,
+            String screenType, String screenSize, String battery, String search, int buckets) {
+
+        CatalogQuery query = new CatalogQuery(category, brand, memory, protection,
+                screenType, screenSize, battery, null, null);
+        String normalizedSearch = search == null || search.isBlank() ? null : search.trim().toLowerCase();
+        int bucketCount = Math.min(Math.max(buckets, 1), PRICE_HISTOGRAM_MAX_BUCKETS);
+        return priceHistogramCache.get(query, normalizedSearch, bucketCount,
+                () -> computePriceHistogram(query, normalizedSearch, bucketCount));
+    }
+
+    private PriceHistogram computePriceHistogram(CatalogQuery query, String search, int buckets) {
+        if (search == null || productSearchIndex.isReady()) {
+            Collection<Long> restrictTo = search != null ? searchHitIds(search) : null;
+            Optional<PriceHistogram> indexed = catalogIndex.priceHistogram(query, restrictTo, buckets);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
+
+        Map<CatalogFacet, String> facets = query.facetValues();
+        return PriceHistogram.fromCounts(productRepository.countEffectivePrices(
+                facets.get(CatalogFacet.CATEGORY), facets.get(CatalogFacet.BRAND), facets.get(CatalogFacet.MEMORY),
+                facets.get(CatalogFacet.PROTECTION), facets.get(CatalogFacet.SCREEN_TYPE),
+                facets.get(CatalogFacet.SCREEN_SIZE), facets.get(CatalogFacet.BATTERY), search), buckets);
+    }
+
+    /**
+     * Top sellers by units sold, overall or within a category. Served from the
+     * maintained ranking; the counter table covers the window before it is built.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductPreviewDto> getBestSellers(Long categoryId, int limit) {
+        int capped = Math.min(Math.max(limit, 1), BEST_SELLERS_MAX_LIMIT);
+        return bestSellerRanking.top(categoryId, capped)
+                .orElseGet(() -> productSalesRepository.findTopSellers(categoryId, Limit.of(capped)));
+    }
+
+    /**
+     * Most similar active products (category, brand, price band, attributes),
+     * served from the precomputed neighbor lists. Unknown or inactive products are not found.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductPreviewDto> getRelatedProducts(Long id, int limit) {
+        int capped = Math.min(Math.max(limit, 1), RelatedProductsIndex.MAX_NEIGHBORS);
+        Optional<List<CatalogEntry>> neighbors = relatedProductsIndex.neighbors(id, capped);
+        if (neighbors.isPresent()) {
+            return neighbors.get().stream().map(ProductPreviewDto::new).toList();
+        }
+
+        Product product = getProductById(id);
+        if (product.getCategory() == null) return List.of();
+        return productRepository.findSameCategoryPreviews(product.getCategory().getId(), id, Limit.of(capped));
+    }
+
+    /** Products with the highest decayed interest as of the last trending tick. */
+    @Transactional(readOnly = true)
+    public List<ProductPreviewDto> getTrendingProducts(int limit) {
+        List<Long> ids = trendingEngine.top(TrendingEngine.MAX_LIMIT);
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, ProductPreviewDto> byId = productRepository.findActivePreviewsByIds(ids).stream()
+                .collect(Collectors.toMap(ProductPreviewDto::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .limit(Math.min(Math.max(limit, 1), TrendingEngine.MAX_LIMIT))
+                .toList();
     }
 
     /* ---------- Admin Queries ---------- */
@@ -102,46 +387,98 @@ public class ProductService {
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getLowStockProducts(int threshold) {
-        return productRepository.findByStockQuantityLessThanEqual(threshold);
+    public Page<Product> searchProductsAdmin(String name, BigDecimal minPrice, BigDecimal maxPrice,
+                                             Long categoryId, Boolean active,
+                                             int page, int size, String sortBy, String sortDir) {
+        Sort sort = Sort.by(sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC, sortBy);
+        return productRepository.searchProductsAdmin(name, minPrice, maxPrice, categoryId, active,
+                PageRequest.of(page, pageSize(size), sort));
     }
 
-    /* ---------- Mutations ---------- */
+    /**
+     * Active products at or below the given stock level (or their own low-stock
+     * threshold when null), lowest stock first. Matched in memory by the
+     * low-stock monitor, or by an indexed query until it is loaded; only the
+     * matches are loaded.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getLowStockProducts(Integer threshold) {
+        return loadInOrder(lowStockMonitor.lowStockProductIds(threshold));
+    }
 
-    public Product createProduct(ProductRequest req, List<MultipartFile> images) {
-        Set<String> imageUrls = images.stream()
-                .map(img -> cloudinaryService.uploadFile(img, "product_images"))
-                .collect(Collectors.toSet());
+    public Product updateLowStockThreshold(Long id, Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            throw new IllegalArgumentException("Low-stock threshold must not be negative");
+        }
+        Product p = getProductById(id);
+        p.setLowStockThreshold(threshold);
+        p.setUpdatedAt(LocalDateTime.now());
+        return saveChanged(p);
+    }
 
+    @Transactional(readOnly = true)
+    public StockTimeline getStockTimeline(Long id, Long before, int limit) {
+        return inventoryLedger.timeline(id, before, Math.max(1, Math.min(limit, InventoryLedger.MAX_TIMELINE_PAGE)));
+    }
+
+    /* ---------- Mutations ---------- */
 
-        return productRepository.save(mapRequestToProduct(req));
+    /**
+     * Uploads run in parallel before any transaction is opened, so no
+     * connection is held during network I/O. If the insert fails, the
+     * uploaded images are deleted again; once it has committed they belong
+     * to the product, whatever the change listeners do.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Product createProduct(ProductRequest req, List<MultipartFile> images) {
+        Product product = mapRequestToProduct(req);
+        List<String> uploaded = parallelImageUploader.uploadAll(images, PRODUCT_IMAGE_FOLDER);
+        Product saved;
+        try {
+            attachImages(product, uploaded);
+            saved = transactionTemplate.execute(status -> {
+                Product inserted = productRepository.save(product);
+                inventoryLedger.record(inserted.getId(), MovementType.RESTOCK, stockOf(inserted), null);
+                return inserted;
+            });
+        } catch (RuntimeException e) {
+            parallelImageUploader.deleteAll(uploaded);
+            throw e;
+        }
+        publishChange(saved.getId(), ProductChangedEvent.Type.CREATED);
+        return saved;
     }
 
     public Product updateProduct(Long id, ProductRequest req) {
-        Product p = productRepository.findById(id)
+        Product p = productRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        int before = stockOf(p);
         updateProductFromRequest(p, req);
-        return productRepository.save(p);
+        recordStockChange(id, before, stockOf(p));
+        return saveChanged(p);
     }
 
     public void deleteProduct(Long id) {
         Product p = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         productRepository.delete(p);
+        publishChange(id, ProductChangedEvent.Type.DELETED);
     }
 
     public Product updateStock(Long id, int qty) {
-        Product p = getProductById(id);
+        Product p = productRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        recordStockChange(id, stockOf(p), qty);
         p.setStockQuantity(qty);
         p.setUpdatedAt(LocalDateTime.now());
-        return productRepository.save(p);
+        return saveChanged(p);
     }
 
     public Product updatePrice(Long id, double price) {
         Product p = getProductById(id);
         p.setPrice(BigDecimal.valueOf(price));
         p.setUpdatedAt(LocalDateTime.now());
-        return productRepository.save(p);
+        return saveChanged(p);
     }
 
     public Product applyDiscount(Long id, double percent) {
@@ -149,7 +486,7 @@ public class ProductService {
         BigDecimal discount = p.getPrice().multiply(BigDecimal.valueOf(percent / 100D));
         p.setDiscountPrice(p.getPrice().subtract(discount));
         p.setUpdatedAt(LocalDateTime.now());
-        return productRepository.save(p);
+        return saveChanged(p);
     }
 
     /* ---------- Image Helpers ---------- */
@@ -160,14 +497,14 @@ public class ProductService {
             String url = cloudinaryService.uploadFile(img, "products");
             p.getAdditionalImages().add(url);
         }
-        return productRepository.save(p);
+        return saveChanged(p);
     }
 
     public Product removeProductImage(Long id, String url) {
         Product p = getProductById(id);
         if (p.getAdditionalImages().remove(url)) {
             cloudinaryService.deleteFile(url);
-            productRepository.save(p);
+            saveChanged(p);
         }
         return p;
     }
@@ -181,11 +518,72 @@ public class ProductService {
 
         String url = cloudinaryService.uploadFile(newImg, "products");
         p.setImageUrl(url);
-        return productRepository.save(p);
+        return saveChanged(p);
+    }
+
+    /* ---------- Change Notification ---------- */
+
+    private Product saveChanged(Product p) {
+        Product saved = productRepository.save(p);
+        publishChange(saved.getId(), ProductChangedEvent.Type.UPDATED);
+        return saved;
+    }
+
+    /** Admin stock edits: raises are recorded as restocks, cuts as adjustments. */
+    private void recordStockChange(Long productId, int before, int after) {
+        int change = after - before;
+        inventoryLedger.record(productId, change > 0 ? MovementType.RESTOCK : MovementType.ADJUSTMENT, change, null);
+    }
+
+    private static int stockOf(Product p) {
+        return p.getStockQuantity() == null ? 0 : p.getStockQuantity();
+    }
+
+    private void publishChange(Long productId, ProductChangedEvent.Type type) {
+        eventPublisher.publishEvent(new ProductChangedEvent(this, productId, type));
     }
 
     /* ---------- Internal Mappers ---------- */
 
+    /** Loads entities for index-resolved ids with one primary-key lookup, keeping index order. */
+    private List<Product> loadInOrder(List<Long> ids) {
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /** Seeks past the cursor and reads one extra row to learn whether another window follows. */
+    private CursorPage<Product> scrollFromDatabase(Specification<Product> filter, ProductCursor after,
+                                                   String sortBy, boolean ascending, int size, boolean withTotal) {
+        Specification<Product> seek = after == null ? filter : filter.and(ProductSpecifications.after(after));
+        Sort sort = ProductSpecifications.keysetSort(sortBy, ascending);
+        List<Product> rows = productRepository.findBy(seek, q -> q.sortBy(sort).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<Product> content = hasNext ? rows.subList(0, size) : rows;
+        Long total = withTotal ? productRepository.count(filter) : null;
+        return cursorPage(content, hasNext, sortBy, ascending, total);
+    }
+
+    private CursorPage<Product> cursorPage(List<Product> content, boolean hasNext,
+                                           String sortBy, boolean ascending, Long total) {
+        String next = hasNext && !content.isEmpty()
+                ? ProductCursor.after(content.get(content.size() - 1), sortBy, ascending).encode()
+                : null;
+        return new CursorPage<>(content, next, total);
+    }
+
+    /** Page sizes from request parameters, kept within 1..{@link #MAX_PAGE_SIZE}. */
+    private static int pageSize(int requested) {
+        return Math.min(Math.max(requested, 1), MAX_PAGE_SIZE);
+    }
+
+    private List<Long> searchHitIds(String search) {
+        return productSearchIndex.search(search)
+                .map(hits -> hits.stream().map(ProductSearchIndex.Hit::productId).toList())
+                .orElse(List.of());
+    }
+
     private Product mapRequestToProduct(ProductRequest r) {
         Product p = Product.builder()
                 .name(r.getName())
@@ -193,6 +591,7 @@ public class ProductService {
                 .price(r.getPrice())
                 .discountPrice(r.getDiscountPrice())
                 .stockQuantity(r.getStockQuantity())
+                .lowStockThreshold(r.getLowStockThreshold())
                 .imageUrl(r.getImageUrl())
                 .additionalImages(defaultSet(r.getAdditionalImages()))
                 .category(categoryService.getCategoryById(r.getCategoryId()))
@@ -205,13 +604,25 @@ public class ProductService {
         return p;
     }
 
+    /** The first upload becomes the listing image unless the request names one; the rest are gallery images. */
+    private void attachImages(Product p, List<String> uploaded) {
+        for (String url : uploaded) {
+            if (p.getImageUrl() == null || p.getImageUrl().isBlank()) {
+                p.setImageUrl(url);
+            } else {
+                p.getAdditionalImages().add(url);
+            }
+        }
+    }
+
     private void updateProductFromRequest(Product p, ProductRequest r) {
         p.setName(r.getName());
         p.setDescription(r.getDescription());
         p.setPrice(r.getPrice());
         p.setDiscountPrice(r.getDiscountPrice());
         p.setStockQuantity(r.getStockQuantity());
-        p.setImageUrl(r.getImageUrl());
+        p.setLowStockThreshold(r.getLowStockThreshold());
+        if (r.getImageUrl() != null) p.setImageUrl(r.getImageUrl());
         p.setAdditionalImages(defaultSet(r.getAdditionalImages()));
         p.setCategory(categoryService.getCategoryById(r.getCategoryId()));
         p.setUpdatedAt(LocalDateTime.now());
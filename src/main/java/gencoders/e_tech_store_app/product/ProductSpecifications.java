@@ -0,0 +1,104 @@
+package gencoders.e_tech_store_app.product;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria counterparts of the listing queries in {@link ProductRepository},
+ * used where a predicate has to be combined with a keyset seek.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {}
+
+    /** Same constraints as {@code ProductRepository.filterProducts} (public, active products only). */
+    public static Specification<Product> publicFilter(String category, String brand, String memory,
+                                                      String protection, String screenType, String screenSize,
+                                                      String battery, BigDecimal minPrice, BigDecimal maxPrice,
+                                                      String search) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isTrue(root.get("active")));
+            if (hasText(category)) predicates.add(cb.equal(cb.lower(root.join("category").get("name")), category.toLowerCase()));
+            if (hasText(brand)) predicates.add(cb.equal(cb.lower(root.get("brand")), brand.toLowerCase()));
+            if (hasText(memory)) predicates.add(cb.equal(cb.lower(root.join("memory").get("value")), memory.toLowerCase()));
+            if (hasText(protection)) predicates.add(cb.equal(cb.lower(root.join("protection").get("value")), protection.toLowerCase()));
+            if (hasText(screenType)) predicates.add(cb.equal(cb.lower(root.join("screenType").get("value")), screenType.toLowerCase()));
+            if (hasText(screenSize)) predicates.add(cb.equal(cb.lower(root.get("screenSize")), screenSize.toLowerCase()));
+            if (hasText(battery)) predicates.add(cb.equal(cb.lower(root.join("batteryCapacity").get("value")), battery.toLowerCase()));
+            if (minPrice != null) predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            if (maxPrice != null) predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            if (hasText(search)) {
+                String pattern = "%" + search.toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("name")), pattern),
+                        cb.like(cb.lower(root.get("description")), pattern)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /** Same constraints as {@code ProductRepository.searchProductsAdmin} (all products). */
+    public static Specification<Product> adminFilter(String name, BigDecimal minPrice, BigDecimal maxPrice,
+                                                     Long categoryId, Boolean active) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (hasText(name)) predicates.add(cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+            if (minPrice != null) predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            if (maxPrice != null) predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            if (categoryId != null) predicates.add(cb.equal(root.get("category").get("id"), categoryId));
+            if (active != null) predicates.add(cb.equal(root.get("active"), active));
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Rows strictly after the cursor in {@link #keysetSort(String, boolean)} order:
+     * nulls last when ascending, first when descending, ties broken by id.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Product> after(ProductCursor cursor) {
+        return (root, query, cb) -> {
+            Path key = root.get(cursor.sortBy());
+            Path<Long> id = root.get("id");
+            Comparable value = cursor.value();
+
+            if (cursor.ascending()) {
+                if (value == null) {
+                    return cb.and(cb.isNull(key), cb.greaterThan(id, cursor.id()));
+                }
+                return cb.or(
+                        cb.greaterThan(key, value),
+                        cb.and(cb.equal(key, value), cb.greaterThan(id, cursor.id())),
+                        cb.isNull(key));
+            }
+            if (value == null) {
+                return cb.or(
+                        cb.isNotNull(key),
+                        cb.and(cb.isNull(key), cb.lessThan(id, cursor.id())));
+            }
+            return cb.or(
+                    cb.lessThan(key, value),
+                    cb.and(cb.equal(key, value), cb.lessThan(id, cursor.id())));
+        };
+    }
+
+    /** Sort matching {@link #after(ProductCursor)}: the key with explicit null placement, then id. */
+    public static Sort keysetSort(String sortBy, boolean ascending) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort.Order key = ascending
+                ? new Sort.Order(direction, sortBy).nullsLast()
+                : new Sort.Order(direction, sortBy).nullsFirst();
+        return "id".equals(sortBy) ? Sort.by(key) : Sort.by(key, new Sort.Order(direction, "id"));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
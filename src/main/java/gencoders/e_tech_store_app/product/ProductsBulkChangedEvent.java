@@ -0,0 +1,36 @@
+package gencoders.e_tech_store_app.product;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by set-based operations (imports, bulk updates) in place of one
+ * {@link ProductChangedEvent} per row, so listeners can refresh the affected
+ * products in batches. Orders and stock holds publish it as a stock-only
+ * change, which leaves the listing validators alone unless a product sells
+ * out or comes back in stock.
+ */
+@Getter
+public class ProductsBulkChangedEvent extends ApplicationEvent {
+
+    private final List<Long> productIds;
+    private final boolean stockOnly;
+
+    public ProductsBulkChangedEvent(Object source, Collection<Long> productIds) {
+        this(source, productIds, false);
+    }
+
+    private ProductsBulkChangedEvent(Object source, Collection<Long> productIds, boolean stockOnly) {
+        super(source);
+        this.productIds = List.copyOf(productIds);
+        this.stockOnly = stockOnly;
+    }
+
+    /** Only the stock quantity of these products changed. */
+    public static ProductsBulkChangedEvent stockChanged(Object source, Collection<Long> productIds) {
+        return new ProductsBulkChangedEvent(source, productIds, true);
+    }
+}
@@ -14,7 +14,7 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-class ProtectionOption {
+public class ProtectionOption {
     @Id
     @GeneratedValue
     private Long id;
@@ -14,7 +14,7 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-class ScreenTypeOption {
+public class ScreenTypeOption {
     @Id
     @GeneratedValue
     private Long id;
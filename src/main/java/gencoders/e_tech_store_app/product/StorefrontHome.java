@@ -0,0 +1,113 @@
+package gencoders.e_tech_store_app.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gencoders.e_tech_store_app.category.Category;
+import gencoders.e_tech_store_app.category.CategoryChangedEvent;
+import gencoders.e_tech_store_app.category.CategoryService;
+import gencoders.e_tech_store_app.order.OrderPlacedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.util.List;
+
+/**
+ * Pre-serialized storefront home page: featured, new arrivals, discounted,
+ * best sellers and categories in one JSON document.
+ * <p>
+ * Catalog, category and order events only mark the snapshot dirty; a
+ * background tick rebuilds it when dirty or older than the max age. Requests
+ * copy nothing and run no query, they get the current bytes and ETag.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorefrontHome {
+
+    private static final int BEST_SELLERS_LIMIT = 10;
+
+    public record Snapshot(byte[] json, String etag) {}
+
+    record CategoryCard(Long id, String name, String slug, String imageUrl) {}
+
+    record Home(List<ProductPreviewDto> featured,
+                List<ProductPreviewDto> newArrivals,
+                List<ProductPreviewDto> discounted,
+                List<ProductPreviewDto> bestSellers,
+                List<CategoryCard> categories) {}
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.home.max-age-ms:300000}")
+    private long maxAgeMs;
+
+    private volatile Snapshot current;
+    private volatile boolean dirty = true;
+    private volatile long builtAt;
+
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        return snapshot != null ? snapshot : rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.home.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (dirty || System.currentTimeMillis() - builtAt >= maxAgeMs) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        dirty = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        dirty = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        dirty = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        dirty = true;
+    }
+
+    private synchronized Snapshot rebuild() {
+        // Cleared before reading: a change committed during the build marks it dirty again
+        dirty = false;
+        try {
+            Home home = new Home(
+                    productService.getFeaturedProducts(),
+                    productService.getNewArrivals(),
+                    productService.getDiscountedProducts(),
+                    productService.getBestSellers(null, BEST_SELLERS_LIMIT),
+                    categoryService.getAllCategories().stream().map(StorefrontHome::card).toList());
+            byte[] json = objectMapper.writeValueAsBytes(home);
+            current = new Snapshot(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+            builtAt = System.currentTimeMillis();
+            return current;
+        } catch (JsonProcessingException e) {
+            dirty = true;
+            throw new IllegalStateException("Could not serialize the storefront home snapshot", e);
+        } catch (RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+    }
+
+    private static CategoryCard card(Category category) {
+        return new CategoryCard(category.getId(), category.getName(), category.getSlug(), category.getImageUrl());
+    }
+}
@@ -0,0 +1,26 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+import java.math.BigDecimal;
+
+/** Set-based price changes; {@code value} is a percentage or an amount depending on the operation. */
+public enum BulkPriceOperation {
+    /** discountPrice = price less {@code value}% (0 &lt; value &lt; 100). */
+    PERCENT_DISCOUNT,
+    /** discountPrice = price less {@code value}; products priced at or below the amount are skipped. */
+    AMOUNT_DISCOUNT,
+    /** Removes the discount. */
+    CLEAR_DISCOUNT,
+    /** price = {@code value}; a discount no longer below the new price is removed. */
+    SET_PRICE,
+    /** price and discountPrice scaled by {@code value}% (e.g. 10 or -15; above -100). */
+    ADJUST_PRICE_PERCENT;
+
+    boolean accepts(BigDecimal value) {
+        return switch (this) {
+            case CLEAR_DISCOUNT -> true;
+            case PERCENT_DISCOUNT -> value != null && value.signum() > 0 && value.compareTo(BigDecimal.valueOf(100)) < 0;
+            case AMOUNT_DISCOUNT, SET_PRICE -> value != null && value.signum() > 0;
+            case ADJUST_PRICE_PERCENT -> value != null && value.compareTo(BigDecimal.valueOf(-100)) > 0;
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class BulkPriceRequest {
+    @NotNull private BulkPriceOperation operation;
+    private BigDecimal value;
+
+    // Selection: every given criterion must match
+    @Size(max = 10000) private List<Long> ids;
+    private Long categoryId;
+    private String brand;
+    @PositiveOrZero private BigDecimal minPrice;
+    @PositiveOrZero private BigDecimal maxPrice;
+
+    @AssertTrue(message = "At least one of ids, categoryId, brand, minPrice or maxPrice is required")
+    public boolean isSelective() {
+        return (ids != null && !ids.isEmpty()) || categoryId != null
+                || (brand != null && !brand.isBlank()) || minPrice != null || maxPrice != null;
+    }
+
+    @AssertTrue(message = "value is missing or out of range for the operation")
+    public boolean isValueValid() {
+        return operation == null || operation.accepts(value);
+    }
+}
@@ -0,0 +1,4 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+/** Outcome of a bulk price change: the number of products updated. */
+public record BulkPriceResult(int affected, long durationMs) {}
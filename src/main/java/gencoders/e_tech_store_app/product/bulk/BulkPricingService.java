@@ -0,0 +1,89 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+import gencoders.e_tech_store_app.product.ProductsBulkChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Promotion-scale repricing in one statement.
+ * <p>
+ * The selection and the arithmetic run in the database as a single
+ * {@code UPDATE ... RETURNING id}; no entity is loaded. The returned ids are
+ * published as one {@link ProductsBulkChangedEvent}, so caches and catalog
+ * indexes refresh exactly the affected products, once, after commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkPricingService {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public BulkPriceResult apply(BulkPriceRequest request) {
+        long started = System.currentTimeMillis();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("value", request.getValue())
+                .addValue("now", LocalDateTime.now());
+
+        List<String> where = new ArrayList<>();
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            where.add("id IN (:ids)");
+            params.addValue("ids", request.getIds());
+        }
+        if (request.getCategoryId() != null) {
+            where.add("category_id = :categoryId");
+            params.addValue("categoryId", request.getCategoryId());
+        }
+        if (request.getBrand() != null && !request.getBrand().isBlank()) {
+            where.add("LOWER(brand) = LOWER(:brand)");
+            params.addValue("brand", request.getBrand().trim());
+        }
+        if (request.getMinPrice() != null) {
+            where.add("price >= :minPrice");
+            params.addValue("minPrice", request.getMinPrice());
+        }
+        if (request.getMaxPrice() != null) {
+            where.add("price <= :maxPrice");
+            params.addValue("maxPrice", request.getMaxPrice());
+        }
+        if (request.getOperation() == BulkPriceOperation.AMOUNT_DISCOUNT) {
+            where.add("price > :value");
+        }
+
+        String sql = "UPDATE products SET " + assignment(request.getOperation()) + ", updated_at = :now"
+                + " WHERE " + String.join(" AND ", where)
+                + " RETURNING id";
+        List<Long> ids = jdbcTemplate.queryForList(sql, params, Long.class);
+
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsBulkChangedEvent(this, ids));
+        }
+        long durationMs = System.currentTimeMillis() - started;
+        log.info("Bulk {} ({}) updated {} products in {} ms",
+                request.getOperation(), request.getValue(), ids.size(), durationMs);
+        return new BulkPriceResult(ids.size(), durationMs);
+    }
+
+    private static String assignment(BulkPriceOperation operation) {
+        return switch (operation) {
+            case PERCENT_DISCOUNT -> "discount_price = ROUND(price * (100 - :value) / 100, 2)";
+            case AMOUNT_DISCOUNT -> "discount_price = price - :value";
+            case CLEAR_DISCOUNT -> "discount_price = 0";
+            case SET_PRICE -> "price = :value, "
+                    + "discount_price = CASE WHEN discount_price >= :value THEN 0 ELSE discount_price END";
+            case ADJUST_PRICE_PERCENT -> "price = GREATEST(ROUND(price * (100 + :value) / 100, 2), 0.01), "
+                    + "discount_price = ROUND(discount_price * (100 + :value) / 100, 2)";
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+import java.util.Locale;
+
+/** Wire formats accepted by the bulk product import. */
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    /** Explicit format when given, otherwise inferred from the upload's file name (CSV by default). */
+    public static ImportFormat resolve(String format, String filename) {
+        if (format != null && !format.isBlank()) {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        }
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl") ? NDJSON : CSV;
+    }
+}
@@ -0,0 +1,22 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** One line of the admin product export; components are the export columns, in order. */
+public record ProductExportRow(
+        Long id,
+        String name,
+        String brand,
+        String model,
+        Long categoryId,
+        String category,
+        BigDecimal price,
+        BigDecimal discountPrice,
+        Integer stockQuantity,
+        Boolean active,
+        Boolean featured,
+        String imageUrl,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
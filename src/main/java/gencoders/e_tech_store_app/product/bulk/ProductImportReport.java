@@ -0,0 +1,25 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param rowsRead        data rows read from the upload
+ * @param imported        rows inserted
+ * @param failed          rows rejected or lost to a failed batch
+ * @param errors          per-row errors, capped; {@code errorsTruncated} tells whether more occurred
+ * @param durationMs      wall time of the whole import
+ * @param rowsPerSecond   throughput over {@code rowsRead}
+ */
+public record ProductImportReport(long rowsRead,
+                                  long imported,
+                                  long failed,
+                                  List<RowError> errors,
+                                  boolean errorsTruncated,
+                                  long durationMs,
+                                  double rowsPerSecond) {
+
+    /** @param row 1-based data row (header excluded) */
+    public record RowError(long row, String message) {}
+}
@@ -0,0 +1,29 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One validated import row with its category resolved to an id. Option values
+ * are resolved in the chunk's transaction, where missing ones are created.
+ */
+record ProductImportRow(long row,
+                        String name,
+                        String description,
+                        BigDecimal price,
+                        BigDecimal discountPrice,
+                        int stockQuantity,
+                        String imageUrl,
+                        Long categoryId,
+                        String brand,
+                        String model,
+                        String screenSize,
+                        String memory,
+                        String screenType,
+                        String protection,
+                        String battery,
+                        boolean featured,
+                        boolean active,
+                        Map<String, String> specifications,
+                        List<String> additionalImages) {}
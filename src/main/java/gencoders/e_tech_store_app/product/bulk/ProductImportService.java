@@ -0,0 +1,498 @@
+package gencoders.e_tech_store_app.product.bulk;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVReaderHeaderAware;
+import com.opencsv.exceptions.CsvException;
+import gencoders.e_tech_store_app.category.Category;
+import gencoders.e_tech_store_app.category.CategoryRepository;
+import gencoders.e_tech_store_app.product.BatteryCapacityOption;
+import gencoders.e_tech_store_app.product.MemoryOption;
+import gencoders.e_tech_store_app.product.ProductsBulkChangedEvent;
+import gencoders.e_tech_store_app.product.ProtectionOption;
+import gencoders.e_tech_store_app.product.ScreenTypeOption;
+import gencoders.e_tech_store_app.product.inventory.MovementType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk product import from CSV (header row required) or NDJSON uploads.
+ * <p>
+ * The upload is read one row at a time. Categories and option values are
+ * resolved through lookup maps loaded once per import; option values not seen
+ * before are created in the transaction of the chunk that first uses them.
+ * Valid rows are inserted with JDBC batches, one transaction per chunk, so a
+ * bad chunk never rolls back the rows already committed. A chunk the database
+ * rejects is retried row by row, so only the offending rows are lost. Catalog
+ * structures are refreshed once at the end.
+ * <p>
+ * Columns: name, description, price, discountPrice, stockQuantity, imageUrl,
+ * category (id, name or slug), brand, model, screenSize, memory, screenType,
+ * protection, battery, featured, active, specifications
+ * ({@code key:value;key:value} or a JSON object) and additionalImages
+ * ({@code url|url} or a JSON array).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 500;
+    private static final int MAX_OPTION_LENGTH = 50;
+    private static final int MAX_BATTERY_LENGTH = 20;
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO products (name, description, price, discount_price, stock_quantity, image_url,
+                                  category_id, brand, model, screen_size, memory_id, screen_type_id,
+                                  protection_id, battery_capacity_id, featured, active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_SPECIFICATION =
+            "INSERT INTO product_specifications (spec_key, spec_value, product_id) VALUES (?, ?, ?)";
+    private static final String INSERT_IMAGE =
+            "INSERT INTO product_images (product_id, image_url) VALUES (?, ?)";
+    private static final String INSERT_MOVEMENT =
+            "INSERT INTO inventory_movements (product_id, type, quantity, created_at) VALUES (?, ?, ?, ?)";
+
+    private enum OptionType { MEMORY, SCREEN_TYPE, PROTECTION, BATTERY }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final CategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductImportReport importProducts(InputStream upload, ImportFormat format) throws IOException {
+        long started = System.nanoTime();
+        Lookups lookups = new Lookups();
+        List<ProductImportReport.RowError> errors = new ArrayList<>();
+        List<Long> importedIds = new ArrayList<>();
+        List<ProductImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        long rowsRead = 0;
+        long failed = 0;
+
+        try (RowReader reader = open(upload, format)) {
+            while (true) {
+                Map<String, Object> raw;
+                try {
+                    raw = reader.next();
+                } catch (CsvException e) {
+                    rowsRead++;
+                    failed++;
+                    addError(errors, rowsRead, "Malformed row: " + e.getMessage());
+                    continue;
+                }
+                if (raw == null) break;
+
+                rowsRead++;
+                try {
+                    chunk.add(parse(rowsRead, raw, lookups));
+                } catch (IllegalArgumentException e) {
+                    failed++;
+                    addError(errors, rowsRead, e.getMessage());
+                }
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    failed += insertChunk(chunk, lookups, importedIds, errors);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                failed += insertChunk(chunk, lookups, importedIds, errors);
+            }
+        }
+
+        if (!importedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsBulkChangedEvent(this, importedIds));
+        }
+
+        long durationMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        double rowsPerSecond = rowsRead * 1000d / durationMs;
+        log.info("Product import: {} rows read, {} imported, {} failed in {} ms ({} rows/s)",
+                rowsRead, importedIds.size(), failed, durationMs, Math.round(rowsPerSecond));
+        return new ProductImportReport(rowsRead, importedIds.size(), failed, List.copyOf(errors),
+                failed > errors.size(), durationMs, rowsPerSecond);
+    }
+
+    /* ---------- Writing ---------- */
+
+    /**
+     * Inserts one chunk in its own transaction. If the database rejects it, the
+     * rows are retried one transaction each; returns the number of rows lost.
+     */
+    private long insertChunk(List<ProductImportRow> rows, Lookups lookups, List<Long> importedIds,
+                             List<ProductImportReport.RowError> errors) {
+        try {
+            importedIds.addAll(transactionTemplate.execute(status -> insertRows(rows, lookups)));
+            return 0;
+        } catch (DataAccessException | PersistenceException e) {
+            log.warn("Product import chunk of {} rows starting at row {} failed, retrying row by row",
+                    rows.size(), rows.get(0).row(), e);
+            lookups.reloadOptions();
+        }
+
+        long failed = 0;
+        for (ProductImportRow row : rows) {
+            try {
+                importedIds.addAll(transactionTemplate.execute(status -> insertRows(List.of(row), lookups)));
+            } catch (DataAccessException | PersistenceException e) {
+                failed++;
+                addError(errors, row.row(), "Insert failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                lookups.reloadOptions();
+            }
+        }
+        return failed;
+    }
+
+    private List<Long> insertRows(List<ProductImportRow> rows, Lookups lookups) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long[]> options = lookups.resolveOptions(rows);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PRODUCT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bindProduct(ps, rows.get(i), options.get(i), now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+
+        List<Long> ids = keys.getKeyList().stream()
+                .map(key -> ((Number) key.get("id")).longValue())
+                .toList();
+
+        List<Object[]> specifications = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> movements = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Long id = ids.get(i);
+            if (rows.get(i).stockQuantity() != 0) {
+                movements.add(new Object[]{id, MovementType.RESTOCK.name(), rows.get(i).stockQuantity(), now});
+            }
+            rows.get(i).specifications().forEach((key, value) -> specifications.add(new Object[]{key, value, id}));
+            rows.get(i).additionalImages().forEach(url -> images.add(new Object[]{id, url}));
+        }
+        if (!specifications.isEmpty()) jdbcTemplate.batchUpdate(INSERT_SPECIFICATION, specifications);
+        if (!images.isEmpty()) jdbcTemplate.batchUpdate(INSERT_IMAGE, images);
+        // Opening stock goes into the inventory ledger with the rows
+        if (!movements.isEmpty()) jdbcTemplate.batchUpdate(INSERT_MOVEMENT, movements);
+        return ids;
+    }
+
+    /** {@code optionIds} are the memory, screen type, protection and battery ids, in that order. */
+    private static void bindProduct(PreparedStatement ps, ProductImportRow row, Long[] optionIds,
+                                    LocalDateTime now) throws SQLException {
+        ps.setString(1, row.name());
+        ps.setString(2, row.description());
+        ps.setBigDecimal(3, row.price());
+        ps.setBigDecimal(4, row.discountPrice());
+        ps.setInt(5, row.stockQuantity());
+        ps.setString(6, row.imageUrl());
+        ps.setObject(7, row.categoryId(), Types.BIGINT);
+        ps.setString(8, row.brand());
+        ps.setString(9, row.model());
+        ps.setString(10, row.screenSize());
+        ps.setObject(11, optionIds[0], Types.BIGINT);
+        ps.setObject(12, optionIds[1], Types.BIGINT);
+        ps.setObject(13, optionIds[2], Types.BIGINT);
+        ps.setObject(14, optionIds[3], Types.BIGINT);
+        ps.setBoolean(15, row.featured());
+        ps.setBoolean(16, row.active());
+        ps.setObject(17, now);
+        ps.setObject(18, now);
+    }
+
+    /* ---------- Parsing ---------- */
+
+    private ProductImportRow parse(long row, Map<String, Object> raw, Lookups lookups) {
+        String name = text(raw, "name");
+        if (name == null) throw new IllegalArgumentException("name is required");
+        if (name.length() > 255) throw new IllegalArgumentException("name is longer than 255 characters");
+
+        BigDecimal price = decimal(raw, "price");
+        if (price == null || price.signum() <= 0) throw new IllegalArgumentException("price must be positive");
+        BigDecimal discountPrice = decimal(raw, "discountPrice");
+        if (discountPrice != null && discountPrice.signum() < 0) {
+            throw new IllegalArgumentException("discountPrice must not be negative");
+        }
+        Integer stock = integer(raw, "stockQuantity");
+        if (stock != null && stock < 0) throw new IllegalArgumentException("stockQuantity must not be negative");
+
+        String category = text(raw, "category", "categoryId");
+        if (category == null) throw new IllegalArgumentException("category is required");
+        Long categoryId = lookups.category(category);
+
+        return new ProductImportRow(
+                row,
+                name,
+                text(raw, "description"),
+                price,
+                discountPrice == null ? BigDecimal.ZERO : discountPrice,
+                stock == null ? 0 : stock,
+                bounded(text(raw, "imageUrl"), "imageUrl", 512),
+                categoryId,
+                bounded(text(raw, "brand"), "brand", 100),
+                bounded(text(raw, "model"), "model", 100),
+                bounded(text(raw, "screenSize"), "screenSize", 50),
+                bounded(text(raw, "memory"), "memory", MAX_OPTION_LENGTH),
+                bounded(text(raw, "screenType"), "screenType", MAX_OPTION_LENGTH),
+                bounded(text(raw, "protection"), "protection", MAX_OPTION_LENGTH),
+                bounded(text(raw, "battery", "batteryCapacity"), "battery", MAX_BATTERY_LENGTH),
+                bool(raw, "featured", false),
+                bool(raw, "active", true),
+                specifications(raw.get("specifications")),
+                images(raw.get("additionalImages")));
+    }
+
+    private static String text(Map<String, Object> raw, String... columns) {
+        for (String column : columns) {
+            Object value = raw.get(column);
+            if (value != null && !value.toString().isBlank()) return value.toString().trim();
+        }
+        return null;
+    }
+
+    /** Rejects values longer than their column, which would otherwise fail the whole chunk. */
+    private static String bounded(String value, String column, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(Map<String, Object> raw, String column) {
+        String value = text(raw, column);
+        try {
+            return value == null ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static Integer integer(Map<String, Object> raw, String column) {
+        String value = text(raw, column);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: " + value);
+        }
+    }
+
+    private static boolean bool(Map<String, Object> raw, String column, boolean fallback) {
+        String value = text(raw, column);
+        return value == null ? fallback : Boolean.parseBoolean(value);
+    }
+
+    private static Map<String, String> specifications(Object value) {
+        Map<String, String> specifications = new LinkedHashMap<>();
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((k, v) -> {
+                if (k != null && v != null) specifications.put(k.toString().trim(), v.toString().trim());
+            });
+        } else if (value != null) {
+            for (String pair : value.toString().split(";")) {
+                int colon = pair.indexOf(':');
+                if (colon <= 0) continue;
+                specifications.put(pair.substring(0, colon).trim(), pair.substring(colon + 1).trim());
+            }
+        }
+        specifications.forEach((k, v) -> {
+            if (k.length() > 50 || v.length() > 200) {
+                throw new IllegalArgumentException("specification '" + k + "' exceeds the column size");
+            }
+        });
+        return specifications;
+    }
+
+    private static List<String> images(Object value) {
+        List<String> images = new ArrayList<>();
+        if (value instanceof Collection<?> list) {
+            list.forEach(url -> {
+                if (url != null && !url.toString().isBlank()) images.add(url.toString().trim());
+            });
+        } else if (value != null) {
+            for (String url : value.toString().split("\\|")) {
+                if (!url.isBlank()) images.add(url.trim());
+            }
+        }
+        images.forEach(url -> bounded(url, "additionalImages", 512));
+        return images;
+    }
+
+    private static void addError(List<ProductImportReport.RowError> errors, long row, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ProductImportReport.RowError(row, message));
+    }
+
+    /* ---------- Readers ---------- */
+
+    private interface RowReader extends Closeable {
+        /** Next row as column → value, or null at the end of the upload. */
+        Map<String, Object> next() throws IOException, CsvException;
+    }
+
+    private RowReader open(InputStream upload, ImportFormat format) throws IOException {
+        if (format == ImportFormat.NDJSON) {
+            MappingIterator<Map<String, Object>> rows = objectMapper
+                    .readerFor(new TypeReference<Map<String, Object>>() {})
+                    .readValues(upload);
+            return new RowReader() {
+                @Override
+                public Map<String, Object> next() throws IOException {
+                    return rows.hasNextValue() ? rows.nextValue() : null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    rows.close();
+                }
+            };
+        }
+
+        CSVReaderHeaderAware csv = new CSVReaderHeaderAware(new InputStreamReader(upload, StandardCharsets.UTF_8));
+        return new RowReader() {
+            @Override
+            public Map<String, Object> next() throws IOException, CsvException {
+                Map<String, String> row = csv.readMap();
+                return row == null ? null : new HashMap<>(row);
+            }
+
+            @Override
+            public void close() throws IOException {
+                csv.close();
+            }
+        };
+    }
+
+    /* ---------- Lookups ---------- */
+
+    /**
+     * Category and option ids for one import, loaded once and extended as new
+     * option values appear. Option ids created in a transaction that rolled back
+     * are dropped by {@link #reloadOptions()}.
+     */
+    private class Lookups {
+
+        private final Map<String, Long> categories = new HashMap<>();
+        private final Map<OptionType, Map<String, Long>> options = new EnumMap<>(OptionType.class);
+        private int createdCount;
+
+        Lookups() {
+            for (Category category : categoryRepository.findAll()) {
+                categories.put(category.getId().toString(), category.getId());
+                if (category.getName() != null) categories.put(key(category.getName()), category.getId());
+                if (category.getSlug() != null) categories.putIfAbsent(key(category.getSlug()), category.getId());
+            }
+            reloadOptions();
+        }
+
+        Long category(String value) {
+            Long id = categories.get(key(value));
+            if (id == null) throw new IllegalArgumentException("Unknown category: " + value);
+            return id;
+        }
+
+        /**
+         * Option ids of each row (memory, screen type, protection, battery), creating
+         * missing values in the caller's transaction; flushed before the rows are
+         * inserted so the foreign keys resolve.
+         */
+        List<Long[]> resolveOptions(List<ProductImportRow> rows) {
+            int before = createdCount;
+            List<Long[]> ids = new ArrayList<>(rows.size());
+            for (ProductImportRow row : rows) {
+                ids.add(new Long[]{
+                        option(OptionType.MEMORY, row.memory()),
+                        option(OptionType.SCREEN_TYPE, row.screenType()),
+                        option(OptionType.PROTECTION, row.protection()),
+                        option(OptionType.BATTERY, row.battery())});
+            }
+            if (createdCount > before) entityManager.flush();
+            return ids;
+        }
+
+        void reloadOptions() {
+            for (OptionType type : OptionType.values()) {
+                options.put(type, loadOptions(type));
+            }
+        }
+
+        private Long option(OptionType type, String value) {
+            if (value == null) return null;
+            return options.get(type).computeIfAbsent(key(value), k -> createOption(type, value));
+        }
+
+        private Map<String, Long> loadOptions(OptionType type) {
+            Map<String, Long> ids = new HashMap<>();
+            entityManager.createQuery("SELECT o.id, o.value FROM " + entityName(type) + " o", Object[].class)
+                    .getResultList()
+                    .forEach(row -> ids.put(key((String) row[1]), (Long) row[0]));
+            return ids;
+        }
+
+        // A value created concurrently by another import fails the chunk; the row-by-row retry then finds it
+        private Long createOption(OptionType type, String value) {
+            createdCount++;
+            return switch (type) {
+                case MEMORY -> persist(new MemoryOption(null, value)).getId();
+                case SCREEN_TYPE -> persist(new ScreenTypeOption(null, value)).getId();
+                case PROTECTION -> persist(new ProtectionOption(null, value)).getId();
+                case BATTERY -> persist(new BatteryCapacityOption(null, value)).getId();
+            };
+        }
+
+        private <T> T persist(T entity) {
+            entityManager.persist(entity);
+            return entity;
+        }
+
+        private static String entityName(OptionType type) {
+            return switch (type) {
+                case MEMORY -> "MemoryOption";
+                case SCREEN_TYPE -> "ScreenTypeOption";
+                case PROTECTION -> "ProtectionOption";
+                case BATTERY -> "BatteryCapacityOption";
+            };
+        }
+
+        private static String key(String value) {
+            return value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
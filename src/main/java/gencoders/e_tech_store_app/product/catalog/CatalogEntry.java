@@ -0,0 +1,75 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import gencoders.e_tech_store_app.product.Product;
+import gencoders.e_tech_store_app.product.ProductSpecification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, detached view of the product columns the in-memory catalog
+ * structures need. Built once per product change, never touches Hibernate
+ * proxies after construction.
+ */
+public record CatalogEntry(
+        Long id,
+        String name,
+        String description,
+        String brand,
+        String model,
+        Long categoryId,
+        String category,
+        String memory,
+        String protection,
+        String screenType,
+        String screenSize,
+        String battery,
+        BigDecimal price,
+        BigDecimal discountPrice,
+        Integer stockQuantity,
+        Integer lowStockThreshold,
+        String imageUrl,
+        boolean featured,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Map<String, String> specifications
+) {
+
+    public static CatalogEntry from(Product p) {
+        return new CatalogEntry(
+                p.getId(),
+                p.getName(),
+                p.getDescription(),
+                p.getBrand(),
+                p.getModel(),
+                p.getCategory() != null ? p.getCategory().getId() : null,
+                p.getCategory() != null ? p.getCategory().getName() : null,
+                p.getMemory() != null ? p.getMemory().getValue() : null,
+                p.getProtection() != null ? p.getProtection().getValue() : null,
+                p.getScreenType() != null ? p.getScreenType().getValue() : null,
+                p.getScreenSize(),
+                p.getBatteryCapacity() != null ? p.getBatteryCapacity().getValue() : null,
+                p.getPrice(),
+                p.getDiscountPrice(),
+                p.getStockQuantity(),
+                p.getLowStockThreshold(),
+                p.getImageUrl(),
+                Boolean.TRUE.equals(p.getFeatured()),
+                p.getCreatedAt(),
+                p.getUpdatedAt(),
+                p.getSpecifications().stream()
+                        .filter(spec -> spec.getSpecKey() != null && spec.getSpecValue() != null)
+                        .collect(Collectors.toUnmodifiableMap(
+                                ProductSpecification::getSpecKey,
+                                ProductSpecification::getSpecValue,
+                                (first, second) -> first))
+        );
+    }
+
+    /** Discount price when one is set, list price otherwise (mirrors {@link Product#getDiscountedPrice()}). */
+    public BigDecimal effectivePrice() {
+        return discountPrice != null && discountPrice.compareTo(BigDecimal.ZERO) > 0 ? discountPrice : price;
+    }
+}
@@ -0,0 +1,40 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Exact-match attributes the public listing can be filtered on.
+ * Values are indexed case-insensitively, matching the LOWER(x) = LOWER(:x)
+ * semantics of {@code ProductRepository.filterProducts}.
+ */
+public enum CatalogFacet {
+    CATEGORY("category", CatalogEntry::category),
+    BRAND("brand", CatalogEntry::brand),
+    MEMORY("memory", CatalogEntry::memory),
+    PROTECTION("protection", CatalogEntry::protection),
+    SCREEN_TYPE("screenType", CatalogEntry::screenType),
+    SCREEN_SIZE("screenSize", CatalogEntry::screenSize),
+    BATTERY("battery", CatalogEntry::battery);
+
+    private final String param;
+    private final Function<CatalogEntry, String> extractor;
+
+    CatalogFacet(String param, Function<CatalogEntry, String> extractor) {
+        this.param = param;
+        this.extractor = extractor;
+    }
+
+    /** Name of the request parameter this facet is bound to. */
+    public String param() {
+        return param;
+    }
+
+    String valueOf(CatalogEntry entry) {
+        return extractor.apply(entry);
+    }
+
+    static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
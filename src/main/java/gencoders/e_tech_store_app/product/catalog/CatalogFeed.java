@@ -0,0 +1,182 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import gencoders.e_tech_store_app.product.ProductChangedEvent;
+import gencoders.e_tech_store_app.product.ProductRepository;
+import gencoders.e_tech_store_app.product.ProductsBulkChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the active catalog once on startup and pushes every committed product
+ * change to all {@link CatalogListener}s, so each in-memory structure is built
+ * from one database read and refreshed with one primary-key lookup per change.
+ * Changes committed while the startup snapshot is loading are buffered and
+ * replayed from the database before the structures go live, so none is lost.
+ * <p>
+ * Listeners for different commits run concurrently, so every database read
+ * takes a ticket first and a row is pushed only if no row read later was
+ * pushed for that product already. A read that raced a newer commit can then
+ * never overwrite the newer row: that commit's own reload holds a later
+ * ticket.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogFeed {
+
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final List<CatalogListener> listeners;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${app.catalog.index.enabled:true}")
+    private boolean enabled;
+
+    // Products changed before the structures went live; guarded by this feed's monitor
+    private final Set<Long> pending = new HashSet<>();
+    // Active products with no stock; stock-only changes move the listing version only when this changes
+    private final Set<Long> soldOut = ConcurrentHashMap.newKeySet();
+    // Read tickets: the ticket of the row last pushed, per product
+    private final AtomicLong reads = new AtomicLong();
+    private final Map<Long, Long> pushedReads = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Catalog index disabled; listings are served from the database");
+            return;
+        }
+        List<CatalogEntry> entries = productRepository.findAllActiveForCatalog().stream()
+                .map(CatalogEntry::from)
+                .toList();
+        listeners.forEach(listener -> listener.rebuild(entries));
+        entries.forEach(this::trackAvailability);
+
+        // Replay what changed during the load; the last round runs under the lock so no change slips in between
+        List<Long> changed;
+        while (!(changed = drainPending()).isEmpty()) {
+            reload(changed);
+        }
+        synchronized (this) {
+            reload(new ArrayList<>(pending));
+            pending.clear();
+            loaded = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!loaded && buffer(List.of(event.getProductId()))) {
+            catalogVersion.bump();
+            return;
+        }
+
+        long read = reads.incrementAndGet();
+        Optional<CatalogEntry> fresh = event.getType() == ProductChangedEvent.Type.DELETED
+                ? Optional.empty()
+                : productRepository.findForCatalogById(event.getProductId())
+                        .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                        .map(CatalogEntry::from);
+
+        push(event.getProductId(), fresh.orElse(null), read);
+        catalogVersion.bump();
+    }
+
+    /** Reloads the affected products in chunks, one query per chunk. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        if (loaded || !buffer(event.getProductIds())) {
+            boolean listingChanged = reload(event.getProductIds());
+            if (event.isStockOnly() && !listingChanged) {
+                catalogVersion.bumpStock();
+                return;
+            }
+        }
+        catalogVersion.bump();
+    }
+
+    /** Remembers changes made before the structures are live; false once they are. */
+    private synchronized boolean buffer(Collection<Long> productIds) {
+        if (loaded) return false;
+        if (enabled) pending.addAll(productIds);
+        return true;
+    }
+
+    private synchronized List<Long> drainPending() {
+        List<Long> ids = new ArrayList<>(pending);
+        pending.clear();
+        return ids;
+    }
+
+    /** Pushes the products' current rows to the listeners; true if one left the catalog or its availability flipped. */
+    private boolean reload(List<Long> ids) {
+        boolean listingChanged = false;
+        for (int from = 0; from < ids.size(); from += RELOAD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, ids.size()));
+            long read = reads.incrementAndGet();
+            Map<Long, CatalogEntry> fresh = productRepository.findForCatalogByIdIn(chunk).stream()
+                    .filter(p -> Boolean.TRUE.equals(p.getActive()))
+                    .map(CatalogEntry::from)
+                    .collect(Collectors.toMap(CatalogEntry::id, Function.identity()));
+
+            for (Long id : chunk) {
+                listingChanged |= push(id, fresh.get(id), read);
+            }
+        }
+        return listingChanged;
+    }
+
+    /**
+     * Pushes a product's row read with the given ticket to the listeners, or its
+     * removal when the row is null, unless a later read was pushed already.
+     * True if the product left the catalog or its availability flipped.
+     */
+    private boolean push(Long id, CatalogEntry entry, long read) {
+        boolean[] listingChanged = {false};
+        // Runs under the map's per-key lock, so pushes for one product never interleave
+        pushedReads.compute(id, (key, pushed) -> {
+            if (pushed != null && pushed > read) return pushed;
+            for (CatalogListener listener : listeners) {
+                if (entry != null) {
+                    listener.upsert(entry);
+                } else {
+                    listener.remove(id);
+                }
+            }
+            if (entry != null) {
+                listingChanged[0] = trackAvailability(entry);
+            } else {
+                soldOut.remove(id);
+                listingChanged[0] = true;
+            }
+            return read;
+        });
+        return listingChanged[0];
+    }
+
+    /** Records whether the product is sold out; true when that changed. */
+    private boolean trackAvailability(CatalogEntry entry) {
+        boolean none = entry.stockQuantity() == null || entry.stockQuantity() <= 0;
+        return none ? soldOut.add(entry.id()) : soldOut.remove(entry.id());
+    }
+}
@@ -0,0 +1,436 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory facet index over active products.
+ * <p>
+ * Every product occupies a dense slot; each facet value maps to a {@link BitSet}
+ * of slots, so a filter is a handful of bitwise ANDs. Sort orders are slot
+ * arrays computed lazily per sort key and patched in place on each mutation:
+ * a change moves one slot in the orders whose key it changed (an array copy,
+ * never a re-sort), so a stream of stock updates leaves the other orders
+ * untouched. The price order doubles as the range index for min/max price
+ * filters.
+ * <p>
+ * Fed by {@link CatalogFeed}. Until the first build completes {@link #isReady()}
+ * is false and callers should fall back to the database.
+ */
+@Slf4j
+@Component
+public class CatalogIndex implements CatalogListener {
+
+    private static final Map<String, Function<CatalogEntry, Comparable<?>>> SORT_KEYS = Map.of(
+            "id", CatalogEntry::id,
+            "name", CatalogEntry::name,
+            "price", CatalogEntry::price,
+            "discountPrice", CatalogEntry::discountPrice,
+            "stockQuantity", CatalogEntry::stockQuantity,
+            "createdAt", CatalogEntry::createdAt,
+            "updatedAt", CatalogEntry::updatedAt
+    );
+
+    // Sort order cache key for the histogram; not a listing sort key
+    private static final String EFFECTIVE_PRICE_ORDER = "effectivePrice";
+
+    /** A keyset window: rows after a cursor, whether more follow, and the full match count. */
+    public record Scroll(List<CatalogEntry> content, boolean hasNext, long total) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<CatalogEntry> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<CatalogFacet, Map<String, BitSet>> postings = new EnumMap<>(CatalogFacet.class);
+    private final Map<String, int[]> sortOrders = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /* ---------- Feed ---------- */
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            freeSlots.clear();
+            slotById.clear();
+            live.clear();
+            postings.clear();
+            sortOrders.clear();
+            entries.forEach(this::index);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Catalog index built with {} active products", entries.size());
+    }
+
+    @Override
+    public void upsert(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            index(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            evict(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean supportsSort(String sortBy) {
+        return SORT_KEYS.containsKey(sortBy);
+    }
+
+    /** The value an entry is ordered by under the given sort key. */
+    public static Comparable<?> sortValue(CatalogEntry entry, String sortBy) {
+        return SORT_KEYS.get(sortBy).apply(entry);
+    }
+
+    /* ---------- Queries ---------- */
+
+    /**
+     * Filters, sorts and pages the index. Empty when the index is not built yet
+     * or the sort key is not one the index maintains.
+     */
+    public Optional<Page<CatalogEntry>> query(CatalogQuery query, int page, int size,
+                                              String sortBy, boolean ascending) {
+        return query(query, null, page, size, sortBy, ascending);
+    }
+
+    /**
+     * Same as {@link #query(CatalogQuery, int, int, String, boolean)} but limited to
+     * the given product ids, e.g. the hits of a text search. A null restriction
+     * means the whole catalog.
+     */
+    public Optional<Page<CatalogEntry>> query(CatalogQuery query, Collection<Long> restrictTo,
+                                              int page, int size, String sortBy, boolean ascending) {
+        if (!ready || !supportsSort(sortBy)) return Optional.empty();
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(query, restrictTo);
+            int[] order = sortOrder(sortBy);
+            long offset = (long) page * size;
+
+            List<CatalogEntry> content = new ArrayList<>(Math.min(size, order.length));
+            long seen = 0;
+            for (int i = 0; i < order.length && content.size() < size; i++) {
+                int slot = order[ascending ? i : order.length - 1 - i];
+                if (!matches.get(slot)) continue;
+                if (seen++ < offset) continue;
+                content.add(slots.get(slot));
+            }
+
+            Sort sort = Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, sortBy);
+            return Optional.of(new PageImpl<>(content, PageRequest.of(page, size, sort), matches.cardinality()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset variant of {@link #query}: returns up to {@code size} matches strictly
+     * after the position ({@code afterValue}, {@code afterId}) in the requested order,
+     * or from the start when {@code afterId} is null. The position is located by
+     * binary search on the sort order, so deep windows cost the same as the first.
+     */
+    public Optional<Scroll> scroll(CatalogQuery query, Collection<Long> restrictTo, String sortBy,
+                                   boolean ascending, Comparable<?> afterValue, Long afterId, int size) {
+        if (!ready || !supportsSort(sortBy)) return Optional.empty();
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(query, restrictTo);
+            int[] order = sortOrder(sortBy);
+            Function<CatalogEntry, Comparable<?>> key = SORT_KEYS.get(sortBy);
+
+            int start;
+            if (afterId == null) {
+                start = ascending ? 0 : order.length - 1;
+            } else if (ascending) {
+                start = firstPosition(order, key, afterValue, afterId, false);
+            } else {
+                start = firstPosition(order, key, afterValue, afterId, true) - 1;
+            }
+
+            List<CatalogEntry> content = new ArrayList<>(Math.min(size, order.length));
+            boolean hasNext = false;
+            for (int i = start; i >= 0 && i < order.length; i += ascending ? 1 : -1) {
+                if (!matches.get(order[i])) continue;
+                if (content.size() == size) {
+                    hasNext = true;
+                    break;
+                }
+                content.add(slots.get(order[i]));
+            }
+            return Optional.of(new Scroll(content, hasNext, matches.cardinality()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Disjunctive facet counts for the query, in one pass over the indexed products
+     * (optionally limited to the given product ids).
+     */
+    public Optional<FacetCounts> facetCounts(CatalogQuery query, Collection<Long> restrictTo) {
+        if (!ready) return Optional.empty();
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = restrictTo == null ? live : slotsOf(restrictTo);
+            List<CatalogEntry> entries = candidates.stream().mapToObj(slots::get).toList();
+            return Optional.of(FacetCounts.compute(entries, query));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Effective-price histogram of the products matching the query's facet
+     * constraints (optionally limited to the given product ids). The query's
+     * own price range is ignored, so the slider always shows the full span.
+     */
+    public Optional<PriceHistogram> priceHistogram(CatalogQuery query, Collection<Long> restrictTo, int buckets) {
+        if (!ready) return Optional.empty();
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(query.withoutPriceRange(), restrictTo);
+            int[] order = sortOrder(EFFECTIVE_PRICE_ORDER, CatalogEntry::effectivePrice);
+            List<BigDecimal> prices = new ArrayList<>(matches.cardinality());
+            for (int slot : order) {
+                if (!matches.get(slot)) continue;
+                BigDecimal price = slots.get(slot).effectivePrice();
+                if (price == null) break; // nulls sort last
+                prices.add(price);
+            }
+            return Optional.of(PriceHistogram.of(prices, buckets));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Slots matching every constraint of the query. Caller must hold the read lock. */
+    BitSet match(CatalogQuery query, Collection<Long> restrictTo) {
+        BitSet result = restrictTo == null ? (BitSet) live.clone() : slotsOf(restrictTo);
+        for (Map.Entry<CatalogFacet, String> constraint : query.facetValues().entrySet()) {
+            BitSet posting = postings.getOrDefault(constraint.getKey(), Map.of()).get(constraint.getValue());
+            if (posting == null) {
+                return new BitSet();
+            }
+            result.and(posting);
+        }
+        if (query.minPrice() != null || query.maxPrice() != null) {
+            result.and(priceRange(query.minPrice(), query.maxPrice()));
+        }
+        return result;
+    }
+
+    /* ---------- Internals ---------- */
+
+    private BitSet slotsOf(Collection<Long> productIds) {
+        BitSet result = new BitSet();
+        for (Long id : productIds) {
+            Integer slot = slotById.get(id);
+            if (slot != null) result.set(slot);
+        }
+        return result;
+    }
+
+    private BitSet priceRange(BigDecimal min, BigDecimal max) {
+        int[] order = sortOrder("price");
+        int from = min == null ? 0 : firstIndex(order, p -> p == null || p.compareTo(min) >= 0);
+        int to = max == null
+                ? firstIndex(order, p -> p == null)
+                : firstIndex(order, p -> p == null || p.compareTo(max) > 0);
+
+        BitSet range = new BitSet();
+        for (int i = from; i < to; i++) {
+            range.set(order[i]);
+        }
+        return range;
+    }
+
+    /** Binary search for the first position whose price satisfies a monotone predicate. */
+    private int firstIndex(int[] order, Predicate<BigDecimal> test) {
+        int lo = 0, hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (test.test(slots.get(order[mid]).price())) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /**
+     * First position in an ascending sort order whose (key, id) is greater than
+     * (or, when {@code inclusive}, at least) the given position.
+     */
+    private int firstPosition(int[] order, Function<CatalogEntry, Comparable<?>> key,
+                              Comparable<?> value, Long id, boolean inclusive) {
+        int lo = 0, hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            CatalogEntry entry = slots.get(order[mid]);
+            int cmp = compareKeys(key.apply(entry), entry.id(), value, id);
+            if (cmp > 0 || (inclusive && cmp == 0)) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    private int[] sortOrder(String sortBy) {
+        return sortOrder(sortBy, SORT_KEYS.get(sortBy));
+    }
+
+    private static Function<CatalogEntry, Comparable<?>> orderKey(String cacheKey) {
+        return EFFECTIVE_PRICE_ORDER.equals(cacheKey) ? CatalogEntry::effectivePrice : SORT_KEYS.get(cacheKey);
+    }
+
+    /**
+     * Moves the slot to its place for the new entry in every cached order whose
+     * key changed; a null {@code before} is an insert, a null {@code after} a removal.
+     * Must run under the write lock, after the slot holds {@code after}.
+     */
+    private void reorder(int slot, CatalogEntry before, CatalogEntry after) {
+        sortOrders.replaceAll((cacheKey, order) -> {
+            Function<CatalogEntry, Comparable<?>> key = orderKey(cacheKey);
+            if (before != null && after != null
+                    && compareKeys(key.apply(before), before.id(), key.apply(after), after.id()) == 0) {
+                return order;
+            }
+            int[] rest = before == null ? order : without(order, slot);
+            if (after == null) return rest;
+            int at = firstPosition(rest, key, key.apply(after), after.id(), false);
+            int[] moved = new int[rest.length + 1];
+            System.arraycopy(rest, 0, moved, 0, at);
+            moved[at] = slot;
+            System.arraycopy(rest, at, moved, at + 1, rest.length - at);
+            return moved;
+        });
+    }
+
+    private static int[] without(int[] order, int slot) {
+        int at = 0;
+        while (order[at] != slot) at++;
+        int[] rest = new int[order.length - 1];
+        System.arraycopy(order, 0, rest, 0, at);
+        System.arraycopy(order, at + 1, rest, at, rest.length - at);
+        return rest;
+    }
+
+    private int[] sortOrder(String cacheKey, Function<CatalogEntry, Comparable<?>> key) {
+        return sortOrders.computeIfAbsent(cacheKey, k -> {
+            Comparator<CatalogEntry> comparator =
+                    (a, b) -> compareKeys(key.apply(a), a.id(), key.apply(b), b.id());
+            return live.stream()
+                    .boxed()
+                    .sorted((a, b) -> comparator.compare(slots.get(a), slots.get(b)))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        });
+    }
+
+    private void index(CatalogEntry entry) {
+        Integer existing = slotById.get(entry.id());
+        CatalogEntry before = existing != null ? slots.get(existing) : null;
+        int slot;
+        if (existing != null) {
+            unindex(existing);
+            slot = existing;
+            slots.set(slot, entry);
+        } else if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+            slots.set(slot, entry);
+        } else {
+            slot = slots.size();
+            slots.add(entry);
+        }
+
+        slotById.put(entry.id(), slot);
+        live.set(slot);
+        for (CatalogFacet facet : CatalogFacet.values()) {
+            String value = CatalogFacet.normalize(facet.valueOf(entry));
+            if (value != null) {
+                postings.computeIfAbsent(facet, f -> new HashMap<>())
+                        .computeIfAbsent(value, v -> new BitSet())
+                        .set(slot);
+            }
+        }
+        reorder(slot, before, entry);
+    }
+
+    private void evict(Long productId) {
+        Integer slot = slotById.remove(productId);
+        if (slot == null) return;
+        CatalogEntry before = slots.get(slot);
+        unindex(slot);
+        slots.set(slot, null);
+        freeSlots.push(slot);
+        reorder(slot, before, null);
+    }
+
+    private void unindex(int slot) {
+        CatalogEntry entry = slots.get(slot);
+        live.clear(slot);
+        for (CatalogFacet facet : CatalogFacet.values()) {
+            String value = CatalogFacet.normalize(facet.valueOf(entry));
+            Map<String, BitSet> values = postings.get(facet);
+            if (value == null || values == null) continue;
+            BitSet posting = values.get(value);
+            if (posting != null) {
+                posting.clear(slot);
+                if (posting.isEmpty()) values.remove(value);
+            }
+        }
+    }
+
+    /** Sort key ascending with nulls last, ties broken by id. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Comparable a, Long aId, Comparable b, Long bId) {
+        int cmp;
+        if (a == null || b == null) {
+            cmp = a == null ? (b == null ? 0 : 1) : -1;
+        } else {
+            cmp = a.compareTo(b);
+        }
+        return cmp != 0 ? cmp : aId.compareTo(bId);
+    }
+}
@@ -0,0 +1,19 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import java.util.Collection;
+
+/**
+ * An in-memory structure derived from the active catalog. Implementations are
+ * discovered as beans and kept current by {@link CatalogFeed}.
+ */
+public interface CatalogListener {
+
+    /** Replaces the whole structure with the given active products. */
+    void rebuild(Collection<CatalogEntry> entries);
+
+    /** Adds or replaces a single active product. */
+    void upsert(CatalogEntry entry);
+
+    /** Drops a product that was deleted or deactivated; unknown ids are ignored. */
+    void remove(Long productId);
+}
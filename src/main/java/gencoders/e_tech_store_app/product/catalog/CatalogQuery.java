@@ -0,0 +1,45 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Filter state of a public listing request. Null fields mean "no constraint".
+ */
+public record CatalogQuery(
+        String category,
+        String brand,
+        String memory,
+        String protection,
+        String screenType,
+        String screenSize,
+        String battery,
+        BigDecimal minPrice,
+        BigDecimal maxPrice
+) {
+
+    /** The same facet constraints with no price range, e.g. for the price slider's own distribution. */
+    public CatalogQuery withoutPriceRange() {
+        return new CatalogQuery(category, brand, memory, protection, screenType, screenSize, battery, null, null);
+    }
+
+    /** Facet constraints present in this query, keyed by facet. */
+    public Map<CatalogFacet, String> facetValues() {
+        Map<CatalogFacet, String> values = new EnumMap<>(CatalogFacet.class);
+        put(values, CatalogFacet.CATEGORY, category);
+        put(values, CatalogFacet.BRAND, brand);
+        put(values, CatalogFacet.MEMORY, memory);
+        put(values, CatalogFacet.PROTECTION, protection);
+        put(values, CatalogFacet.SCREEN_TYPE, screenType);
+        put(values, CatalogFacet.SCREEN_SIZE, screenSize);
+        put(values, CatalogFacet.BATTERY, battery);
+        return values;
+    }
+
+    private static void put(Map<CatalogFacet, String> values, CatalogFacet facet, String value) {
+        if (value != null && !value.isBlank()) {
+            values.put(facet, CatalogFacet.normalize(value));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import gencoders.e_tech_store_app.category.CategoryChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of everything the public catalog endpoints serve. Bumped after a
+ * product change has reached the in-memory structures and after category
+ * changes, so a validator is never newer than the data it labels.
+ * <p>
+ * Stock-only changes move a separate stock version, which every view showing
+ * live stock (product listings and detail) validates against. Categories
+ * keep their validator across checkouts; a product selling out or coming
+ * back in stock still bumps the main version.
+ */
+@Component
+public class CatalogVersion {
+
+    // Versions restart with the process; the boot id keeps ETags from colliding across restarts
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong stockVersion = new AtomicLong();
+    private volatile long lastModified = currentSecond();
+    private volatile long stockLastModified = lastModified;
+
+    public String etag() {
+        return "\"" + bootId + "-" + version.get() + "\"";
+    }
+
+    /** Epoch millis of the last change, truncated to HTTP-date precision. */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    /** Validator that also moves with stock-only changes. */
+    public String stockEtag() {
+        return "\"" + bootId + "-" + version.get() + "-" + stockVersion.get() + "\"";
+    }
+
+    public long stockLastModified() {
+        return Math.max(lastModified, stockLastModified);
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+        lastModified = currentSecond();
+    }
+
+    public void bumpStock() {
+        stockVersion.incrementAndGet();
+        stockLastModified = currentSecond();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        bump();
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000 * 1000;
+    }
+}
@@ -0,0 +1,92 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Per-facet value counts for a filter state, as shown in the storefront sidebar.
+ * <p>
+ * Counts are disjunctive: the counts for a facet ignore that facet's own
+ * constraint, so selecting "Samsung" still shows how many products every
+ * other brand would yield. {@code total} is the number of products matching
+ * the full filter.
+ *
+ * @param total  products matching every constraint
+ * @param facets facet parameter name → (value → product count)
+ */
+public record FacetCounts(long total, Map<String, Map<String, Long>> facets) {
+
+    /** Computes all facet counts in a single pass over the candidate entries. */
+    public static FacetCounts compute(Iterable<CatalogEntry> entries, CatalogQuery query) {
+        Tally tally = new Tally(query);
+        for (CatalogEntry entry : entries) {
+            if (inPriceRange(entry.price(), query.minPrice(), query.maxPrice())) {
+                tally.add(facet -> facet.valueOf(entry), 1);
+            }
+        }
+        return tally.result();
+    }
+
+    /**
+     * Computes the same counts from products already grouped by their facet
+     * values; the groups must be restricted to the query's price range.
+     */
+    public static FacetCounts fromGroups(Iterable<FacetGroup> groups, CatalogQuery query) {
+        Tally tally = new Tally(query);
+        for (FacetGroup group : groups) {
+            tally.add(group::valueOf, group.count() == null ? 0 : group.count());
+        }
+        return tally.result();
+    }
+
+    private static final class Tally {
+        private final Map<CatalogFacet, String> constraints;
+        private final Map<CatalogFacet, Map<String, Long>> counts = new EnumMap<>(CatalogFacet.class);
+        private long total;
+
+        Tally(CatalogQuery query) {
+            this.constraints = query.facetValues();
+            for (CatalogFacet facet : CatalogFacet.values()) {
+                counts.put(facet, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+            }
+        }
+
+        void add(Function<CatalogFacet, String> values, long weight) {
+            CatalogFacet failed = null;
+            int failures = 0;
+            for (Map.Entry<CatalogFacet, String> constraint : constraints.entrySet()) {
+                String value = CatalogFacet.normalize(values.apply(constraint.getKey()));
+                if (!constraint.getValue().equals(value)) {
+                    failed = constraint.getKey();
+                    if (++failures > 1) return;
+                }
+            }
+            if (failures == 0) total += weight;
+
+            for (CatalogFacet facet : CatalogFacet.values()) {
+                if (failed != null && facet != failed) continue;
+                String value = values.apply(facet);
+                if (value != null && !value.isBlank()) {
+                    counts.get(facet).merge(value.trim(), weight, Long::sum);
+                }
+            }
+        }
+
+        FacetCounts result() {
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            counts.forEach((facet, values) -> facets.put(facet.param(), values));
+            return new FacetCounts(total, facets);
+        }
+    }
+
+    static boolean inPriceRange(BigDecimal price, BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) return true;
+        if (price == null) return false;
+        return (min == null || price.compareTo(min) >= 0)
+                && (max == null || price.compareTo(max) <= 0);
+    }
+}
@@ -0,0 +1,29 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+/**
+ * Number of active products sharing one combination of facet values, as
+ * returned by the grouped facet query used before the catalog index is built.
+ */
+public record FacetGroup(
+        String category,
+        String brand,
+        String memory,
+        String protection,
+        String screenType,
+        String screenSize,
+        String battery,
+        Long count
+) {
+
+    String valueOf(CatalogFacet facet) {
+        return switch (facet) {
+            case CATEGORY -> category;
+            case BRAND -> brand;
+            case MEMORY -> memory;
+            case PROTECTION -> protection;
+            case SCREEN_TYPE -> screenType;
+            case SCREEN_SIZE -> screenSize;
+            case BATTERY -> battery;
+        };
+    }
+}
@@ -0,0 +1,6 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import java.math.BigDecimal;
+
+/** Number of products at one effective price, as grouped by the price histogram query. */
+public record PriceCount(BigDecimal price, Long count) {}
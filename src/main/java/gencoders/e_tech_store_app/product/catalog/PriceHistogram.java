@@ -0,0 +1,75 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Effective-price distribution for the storefront price slider.
+ * <p>
+ * Buckets are equal-width between the lowest and highest price: boundary
+ * {@code i} is {@code min + (max - min) * i / n} rounded to the cent, and the
+ * bucket count is capped so every bucket spans at least one cent. The last
+ * bucket is closed so the maximum is counted. An empty selection has null
+ * bounds and no buckets.
+ *
+ * @param total   products with a price in the selection
+ * @param min     lowest effective price
+ * @param max     highest effective price
+ * @param buckets ascending, contiguous ranges with their product counts
+ */
+public record PriceHistogram(long total, BigDecimal min, BigDecimal max, List<Bucket> buckets) {
+
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    /** Products priced in [from, to), or [from, to] for the last bucket. */
+    public record Bucket(BigDecimal from, BigDecimal to, long count) {}
+
+    /** Builds the histogram from prices already sorted ascending. */
+    public static PriceHistogram of(List<BigDecimal> ascending, int bucketCount) {
+        List<PriceCount> counts = new ArrayList<>();
+        for (BigDecimal price : ascending) {
+            int last = counts.size() - 1;
+            if (last >= 0 && counts.get(last).price().compareTo(price) == 0) {
+                counts.set(last, new PriceCount(price, counts.get(last).count() + 1));
+            } else {
+                counts.add(new PriceCount(price, 1L));
+            }
+        }
+        return fromCounts(counts, bucketCount);
+    }
+
+    /** Builds the histogram from distinct prices sorted ascending with their product counts. */
+    public static PriceHistogram fromCounts(List<PriceCount> ascending, int bucketCount) {
+        if (ascending.isEmpty()) {
+            return new PriceHistogram(0, null, null, List.of());
+        }
+        BigDecimal min = ascending.get(0).price();
+        BigDecimal max = ascending.get(ascending.size() - 1).price();
+        long total = ascending.stream().mapToLong(PriceCount::count).sum();
+
+        BigDecimal range = max.subtract(min);
+        long cents = range.divide(CENT, 0, RoundingMode.DOWN).longValue();
+        int n = (int) Math.min(bucketCount, cents);
+        if (n == 0) {
+            return new PriceHistogram(total, min, max, List.of(new Bucket(min, max, total)));
+        }
+
+        List<Bucket> buckets = new ArrayList<>(n);
+        BigDecimal from = min;
+        int next = 0;
+        for (int i = 1; i <= n; i++) {
+            boolean last = i == n;
+            BigDecimal to = last ? max : min.add(range.multiply(BigDecimal.valueOf(i))
+                    .divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP));
+            long count = 0;
+            while (next < ascending.size() && (last || ascending.get(next).price().compareTo(to) < 0)) {
+                count += ascending.get(next++).count();
+            }
+            buckets.add(new Bucket(from, to, count));
+            from = to;
+        }
+        return new PriceHistogram(total, min, max, buckets);
+    }
+}
@@ -0,0 +1,193 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over product name, brand, model, specification values and
+ * description, ranked with BM25 on field-weighted term frequencies.
+ * <p>
+ * Every query term must match (AND semantics). The last term is also matched
+ * as a prefix so partially typed words still find results. Terms live in a
+ * sorted map, which makes that prefix expansion a range scan.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex implements CatalogListener {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float BRAND_WEIGHT = 2f;
+    private static final float MODEL_WEIGHT = 2f;
+    private static final float SPEC_WEIGHT = 1f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private double totalLength;
+
+    private volatile boolean ready;
+
+    public record Hit(Long productId, double score) {}
+
+    private record Document(Map<String, Float> termFrequencies, float length) {}
+
+    /* ---------- Feed ---------- */
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            entries.forEach(this::index);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built with {} products and {} terms", entries.size(), postings.size());
+    }
+
+    @Override
+    public void upsert(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            evict(entry.id());
+            index(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            evict(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /* ---------- Queries ---------- */
+
+    /**
+     * All products matching the text, best first. Empty when the index is not
+     * built yet and callers should fall back to the database.
+     */
+    public Optional<List<Hit>> search(String text) {
+        if (!ready) return Optional.empty();
+
+        List<String> terms = TextAnalyzer.tokenize(text).stream().distinct().toList();
+        if (terms.isEmpty()) return Optional.of(List.of());
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            double avgLength = docCount == 0 || totalLength == 0 ? 1 : totalLength / docCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean expand = i == terms.size() - 1 && term.length() >= MIN_PREFIX_LENGTH;
+                Map<Long, Double> termScores = scoreTerm(term, expand, docCount, avgLength);
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) break;
+            }
+
+            List<Hit> hits = new ArrayList<>(scores.size());
+            scores.forEach((id, score) -> hits.add(new Hit(id, score)));
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::productId));
+            return Optional.of(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private Map<Long, Double> scoreTerm(String term, boolean expand, int docCount, double avgLength) {
+        Collection<Map<Long, Float>> matches;
+        if (expand) {
+            matches = postings.subMap(term, true, term + Character.MAX_VALUE, true).values();
+        } else {
+            Map<Long, Float> exact = postings.get(term);
+            matches = exact == null ? List.of() : List.of(exact);
+        }
+
+        Map<Long, Double> termScores = new HashMap<>();
+        for (Map<Long, Float> posting : matches) {
+            int df = posting.size();
+            double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            posting.forEach((id, tf) -> {
+                double norm = K1 * (1 - B + B * documents.get(id).length() / avgLength);
+                double score = idf * tf * (K1 + 1) / (tf + norm);
+                termScores.merge(id, score, Math::max);
+            });
+        }
+        return termScores;
+    }
+
+    private void index(CatalogEntry entry) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addField(frequencies, entry.name(), NAME_WEIGHT);
+        length += addField(frequencies, entry.brand(), BRAND_WEIGHT);
+        length += addField(frequencies, entry.model(), MODEL_WEIGHT);
+        for (String value : entry.specifications().values()) {
+            length += addField(frequencies, value, SPEC_WEIGHT);
+        }
+        length += addField(frequencies, entry.description(), DESCRIPTION_WEIGHT);
+
+        frequencies.forEach((term, tf) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(entry.id(), tf));
+        documents.put(entry.id(), new Document(frequencies, length));
+        totalLength += length;
+    }
+
+    private void evict(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) return;
+        for (String term : document.termFrequencies().keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) postings.remove(term);
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    private static float addField(Map<String, Float> frequencies, String text, float weight) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        tokens.forEach(token -> frequencies.merge(token, weight, Float::sum));
+        return tokens.size() * weight;
+    }
+}
@@ -0,0 +1,276 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Precomputed "related products": the top neighbors of every active product
+ * by a weighted similarity of category, brand, price band and attribute
+ * overlap (option values and specifications).
+ * <p>
+ * Candidates are the products sharing a category or a brand. All writes run
+ * on one background thread, so catalog changes never wait for the O(n·k)
+ * recomputation; a change recomputes the changed product and every product
+ * that listed it or would now list it. Reads are map lookups.
+ * <p>
+ * Changes waiting for the worker are coalesced per product, latest first, and
+ * drained by a single queued task, so a burst of catalog writes queues at most
+ * one row per product. A change that leaves the product's features as they
+ * were (a stock movement, say) only refreshes the listed row.
+ */
+@Slf4j
+@Component
+public class RelatedProductsIndex implements CatalogListener {
+
+    public static final int MAX_NEIGHBORS = 12;
+
+    private static final double CATEGORY_WEIGHT = 0.4;
+    private static final double BRAND_WEIGHT = 0.25;
+    private static final double PRICE_WEIGHT = 0.2;
+    private static final double ATTRIBUTE_WEIGHT = 0.15;
+    /** Prices further apart than this factor get no price-band credit. */
+    private static final double PRICE_BAND = Math.log(2);
+
+    private record Features(Long categoryId, String brand, double logPrice, Set<String> attributes) {}
+
+    private record Neighbor(Long productId, double score) {}
+
+    private final TaskExecutor worker;
+
+    // Latest change per product not yet applied by the worker; empty means removed
+    private final Map<Long, Optional<CatalogEntry>> changes = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    // Written only by the worker thread
+    private final Map<Long, Features> features = new HashMap<>();
+    private final Map<Long, Set<Long>> byCategory = new HashMap<>();
+    private final Map<String, Set<Long>> byBrand = new HashMap<>();
+    private final Map<Long, Set<Long>> listedBy = new HashMap<>();
+    private final Map<Long, List<Neighbor>> scored = new HashMap<>();
+
+    // Read by request threads
+    private final Map<Long, CatalogEntry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, List<Long>> neighbors = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    public RelatedProductsIndex(@Qualifier("relatedProductsExecutor") TaskExecutor worker) {
+        this.worker = worker;
+    }
+
+    /* ---------- Feed ---------- */
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> catalog) {
+        List<CatalogEntry> snapshot = List.copyOf(catalog);
+        worker.execute(() -> {
+            long started = System.currentTimeMillis();
+            features.clear();
+            byCategory.clear();
+            byBrand.clear();
+            listedBy.clear();
+            scored.clear();
+            entries.clear();
+            neighbors.clear();
+
+            snapshot.forEach(this::add);
+            snapshot.forEach(entry -> recompute(entry.id()));
+            ready = true;
+            log.info("Related products computed for {} products in {} ms",
+                    snapshot.size(), System.currentTimeMillis() - started);
+        });
+    }
+
+    @Override
+    public void upsert(CatalogEntry entry) {
+        enqueue(entry.id(), Optional.of(entry));
+    }
+
+    @Override
+    public void remove(Long productId) {
+        enqueue(productId, Optional.empty());
+    }
+
+    /* ---------- Queries ---------- */
+
+    /** Nearest neighbors, most similar first; empty when not computed yet or the product is not indexed. */
+    public Optional<List<CatalogEntry>> neighbors(Long productId, int limit) {
+        if (!ready || !entries.containsKey(productId)) return Optional.empty();
+        return Optional.of(neighbors.getOrDefault(productId, List.of()).stream()
+                .map(entries::get)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .toList());
+    }
+
+    /* ---------- Internals ---------- */
+
+    private void enqueue(Long productId, Optional<CatalogEntry> change) {
+        changes.put(productId, change);
+        if (drainQueued.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    /** Applies the pending changes on the worker; a change arriving meanwhile queues the next drain. */
+    private void drain() {
+        drainQueued.set(false);
+        for (Long productId : changes.keySet()) {
+            Optional<CatalogEntry> change = changes.remove(productId);
+            if (change == null) continue;
+            if (change.isPresent()) {
+                apply(change.get());
+            } else {
+                drop(productId).forEach(this::recompute);
+            }
+        }
+    }
+
+    private void apply(CatalogEntry entry) {
+        if (featuresOf(entry).equals(features.get(entry.id()))) {
+            // Same neighbors either way; only the listed row is new
+            entries.put(entry.id(), entry);
+            return;
+        }
+        Set<Long> affected = new HashSet<>(drop(entry.id()));
+        add(entry);
+        Features own = features.get(entry.id());
+        for (Long candidate : candidates(own)) {
+            if (!candidate.equals(entry.id()) && wouldList(candidate, similarity(features.get(candidate), own))) {
+                affected.add(candidate);
+            }
+        }
+        recompute(entry.id());
+        affected.forEach(this::recompute);
+    }
+
+    private void add(CatalogEntry entry) {
+        Features f = featuresOf(entry);
+        entries.put(entry.id(), entry);
+        features.put(entry.id(), f);
+        if (f.categoryId() != null) byCategory.computeIfAbsent(f.categoryId(), k -> new HashSet<>()).add(entry.id());
+        if (f.brand() != null) byBrand.computeIfAbsent(f.brand(), k -> new HashSet<>()).add(entry.id());
+    }
+
+    /** Removes a product and returns the products whose lists referenced it. */
+    private Set<Long> drop(Long productId) {
+        Features f = features.remove(productId);
+        entries.remove(productId);
+        neighbors.remove(productId);
+        List<Neighbor> own = scored.remove(productId);
+        if (own != null) {
+            own.forEach(n -> unlist(n.productId(), productId));
+        }
+        if (f != null) {
+            if (f.categoryId() != null) removeFrom(byCategory, f.categoryId(), productId);
+            if (f.brand() != null) removeFrom(byBrand, f.brand(), productId);
+        }
+        Set<Long> referrers = listedBy.remove(productId);
+        return referrers == null ? Set.of() : referrers;
+    }
+
+    private void recompute(Long productId) {
+        Features own = features.get(productId);
+        if (own == null) return;
+
+        List<Neighbor> previous = scored.get(productId);
+        if (previous != null) previous.forEach(n -> unlist(n.productId(), productId));
+
+        List<Neighbor> top = new ArrayList<>();
+        for (Long candidate : candidates(own)) {
+            if (candidate.equals(productId)) continue;
+            double score = similarity(own, features.get(candidate));
+            if (score > 0) top.add(new Neighbor(candidate, score));
+        }
+        top.sort(Comparator.comparingDouble(Neighbor::score).reversed().thenComparing(Neighbor::productId));
+        List<Neighbor> kept = List.copyOf(top.subList(0, Math.min(MAX_NEIGHBORS, top.size())));
+
+        scored.put(productId, kept);
+        kept.forEach(n -> listedBy.computeIfAbsent(n.productId(), k -> new HashSet<>()).add(productId));
+        neighbors.put(productId, kept.stream().map(Neighbor::productId).toList());
+    }
+
+    /** True when a neighbor with this score would enter the product's current list. */
+    private boolean wouldList(Long productId, double score) {
+        List<Neighbor> current = scored.get(productId);
+        if (current == null) return false;
+        return score > 0 && (current.size() < MAX_NEIGHBORS || score >= current.get(current.size() - 1).score());
+    }
+
+    private Set<Long> candidates(Features f) {
+        Set<Long> candidates = new HashSet<>();
+        if (f.categoryId() != null) candidates.addAll(byCategory.getOrDefault(f.categoryId(), Set.of()));
+        if (f.brand() != null) candidates.addAll(byBrand.getOrDefault(f.brand(), Set.of()));
+        return candidates;
+    }
+
+    private static double similarity(Features a, Features b) {
+        double score = 0;
+        if (a.categoryId() != null && a.categoryId().equals(b.categoryId())) score += CATEGORY_WEIGHT;
+        if (a.brand() != null && a.brand().equals(b.brand())) score += BRAND_WEIGHT;
+        if (!Double.isNaN(a.logPrice()) && !Double.isNaN(b.logPrice())) {
+            double distance = Math.abs(a.logPrice() - b.logPrice());
+            score += PRICE_WEIGHT * Math.max(0, 1 - distance / PRICE_BAND);
+        }
+        if (!a.attributes().isEmpty() && !b.attributes().isEmpty()) {
+            int shared = 0;
+            for (String attribute : a.attributes()) {
+                if (b.attributes().contains(attribute)) shared++;
+            }
+            int union = a.attributes().size() + b.attributes().size() - shared;
+            score += ATTRIBUTE_WEIGHT * shared / union;
+        }
+        return score;
+    }
+
+    private static Features featuresOf(CatalogEntry entry) {
+        Set<String> attributes = new HashSet<>();
+        addAttribute(attributes, "memory", entry.memory());
+        addAttribute(attributes, "protection", entry.protection());
+        addAttribute(attributes, "screentype", entry.screenType());
+        addAttribute(attributes, "screensize", entry.screenSize());
+        addAttribute(attributes, "battery", entry.battery());
+        entry.specifications().forEach((key, value) -> addAttribute(attributes, TextAnalyzer.normalize(key), value));
+
+        BigDecimal price = entry.effectivePrice();
+        double logPrice = price != null && price.signum() > 0 ? Math.log(price.doubleValue()) : Double.NaN;
+        String brand = entry.brand() == null || entry.brand().isBlank() ? null : TextAnalyzer.normalize(entry.brand());
+        return new Features(entry.categoryId(), brand, logPrice, attributes);
+    }
+
+    private static void addAttribute(Set<String> attributes, String key, String value) {
+        if (value != null && !value.isBlank()) attributes.add(key + "=" + TextAnalyzer.normalize(value));
+    }
+
+    private void unlist(Long neighborId, Long productId) {
+        Set<Long> referrers = listedBy.get(neighborId);
+        if (referrers != null) {
+            referrers.remove(productId);
+            if (referrers.isEmpty()) listedBy.remove(neighborId);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Long>> buckets, K key, Long productId) {
+        Set<Long> ids = buckets.get(key);
+        if (ids != null) {
+            ids.remove(productId);
+            if (ids.isEmpty()) buckets.remove(key);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix lookup for the header search box.
+ * <p>
+ * Every word of a product name is a key in a sorted map, so a typed prefix is
+ * a range scan over the keys. Multi-word input matches products whose words
+ * start with every typed word, in any order. Brands and categories are
+ * aggregated from the active products and weighted by how many products
+ * they hold; products are weighted by featured flag and availability.
+ */
+@Slf4j
+@Component
+public class SuggestionIndex implements CatalogListener {
+
+    public static final int MAX_LIMIT = 20;
+
+    public record Suggestion(Long id, String name, String thumbnail) {}
+
+    public record Suggestions(List<Suggestion> products, List<Suggestion> brands, List<Suggestion> categories) {
+        static final Suggestions EMPTY = new Suggestions(List.of(), List.of(), List.of());
+    }
+
+    private record Group(Long id, String label, List<String> tokens, int count) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, CatalogEntry> products = new HashMap<>();
+    private final Map<Long, List<String>> productTokens = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> keys = new TreeMap<>();
+    private final Map<String, Group> brands = new HashMap<>();
+    private final Map<Long, Group> categories = new HashMap<>();
+
+    private volatile boolean ready;
+
+    /* ---------- Feed ---------- */
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            productTokens.clear();
+            keys.clear();
+            brands.clear();
+            categories.clear();
+            entries.forEach(this::index);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Suggestion index built with {} keys", keys.size());
+    }
+
+    @Override
+    public void upsert(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            evict(entry.id());
+            index(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            evict(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ---------- Queries ---------- */
+
+    public Suggestions suggest(String prefix, int limit) {
+        List<String> typed = TextAnalyzer.tokenize(prefix);
+        if (!ready || typed.isEmpty() || limit <= 0) return Suggestions.EMPTY;
+
+        lock.readLock().lock();
+        try {
+            String first = typed.get(0);
+            Set<Long> candidates = new HashSet<>();
+            keys.subMap(first, true, first + Character.MAX_VALUE, true).values().forEach(candidates::addAll);
+
+            List<Suggestion> productHits = candidates.stream()
+                    .filter(id -> matchesAll(productTokens.get(id), typed))
+                    .map(products::get)
+                    .sorted(Comparator.comparingInt(SuggestionIndex::weight).reversed()
+                            .thenComparingInt(e -> e.name().length())
+                            .thenComparing(CatalogEntry::id))
+                    .limit(limit)
+                    .map(e -> new Suggestion(e.id(), e.name(), e.imageUrl()))
+                    .toList();
+
+            return new Suggestions(productHits, topGroups(brands.values(), typed, limit),
+                    topGroups(categories.values(), typed, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private List<Suggestion> topGroups(Collection<Group> groups, List<String> typed, int limit) {
+        return groups.stream()
+                .filter(g -> matchesAll(g.tokens(), typed))
+                .sorted(Comparator.comparingInt(Group::count).reversed().thenComparing(Group::label))
+                .limit(limit)
+                .map(g -> new Suggestion(g.id(), g.label(), null))
+                .toList();
+    }
+
+    /** True when every typed word is a prefix of some word of the candidate. */
+    private static boolean matchesAll(List<String> tokens, List<String> typed) {
+        if (tokens == null) return false;
+        for (String word : typed) {
+            if (tokens.stream().noneMatch(token -> token.startsWith(word))) return false;
+        }
+        return true;
+    }
+
+    private static int weight(CatalogEntry entry) {
+        int weight = 0;
+        if (entry.featured()) weight += 2;
+        if (entry.stockQuantity() != null && entry.stockQuantity() > 0) weight += 1;
+        return weight;
+    }
+
+    private void index(CatalogEntry entry) {
+        List<String> tokens = TextAnalyzer.tokenize(entry.name());
+        products.put(entry.id(), entry);
+        productTokens.put(entry.id(), tokens);
+        tokens.forEach(token -> keys.computeIfAbsent(token, t -> new HashSet<>()).add(entry.id()));
+
+        if (entry.brand() != null && !entry.brand().isBlank()) {
+            brands.merge(TextAnalyzer.normalize(entry.brand()),
+                    new Group(null, entry.brand().trim(), TextAnalyzer.tokenize(entry.brand()), 1),
+                    (a, b) -> new Group(null, a.label(), a.tokens(), a.count() + 1));
+        }
+        if (entry.categoryId() != null && entry.category() != null) {
+            categories.merge(entry.categoryId(),
+                    new Group(entry.categoryId(), entry.category(), TextAnalyzer.tokenize(entry.category()), 1),
+                    (a, b) -> new Group(a.id(), a.label(), a.tokens(), a.count() + 1));
+        }
+    }
+
+    private void evict(Long productId) {
+        CatalogEntry entry = products.remove(productId);
+        if (entry == null) return;
+
+        for (String token : productTokens.remove(productId)) {
+            Set<Long> ids = keys.get(token);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) keys.remove(token);
+            }
+        }
+        if (entry.brand() != null && !entry.brand().isBlank()) {
+            brands.computeIfPresent(TextAnalyzer.normalize(entry.brand()),
+                    (k, g) -> g.count() <= 1 ? null : new Group(null, g.label(), g.tokens(), g.count() - 1));
+        }
+        if (entry.categoryId() != null) {
+            categories.computeIfPresent(entry.categoryId(),
+                    (k, g) -> g.count() <= 1 ? null : new Group(g.id(), g.label(), g.tokens(), g.count() - 1));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over the words of product name, brand and model, used to
+ * answer misspelled queries ("samsumg", "iphnoe").
+ * <p>
+ * Each distinct word is split into pg_trgm-style trigrams. A query word is
+ * compared against every vocabulary word that shares a trigram with it, and
+ * similarity is the Jaccard ratio of the two trigram sets (the same measure as
+ * pg_trgm's {@code similarity()}). A product scores the sum of the best
+ * similarity each query word reaches on one of its words.
+ */
+@Slf4j
+@Component
+public class TrigramIndex implements CatalogListener {
+
+    /** pg_trgm's default {@code similarity_threshold}. */
+    private static final double THRESHOLD = 0.3;
+
+    public record Hit(Long productId, double score) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<String>> wordsByTrigram = new HashMap<>();
+    private final Map<String, Set<Long>> productsByWord = new HashMap<>();
+    private final Map<Long, Set<String>> wordsByProduct = new HashMap<>();
+
+    private volatile boolean ready;
+
+    /* ---------- Feed ---------- */
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            wordsByTrigram.clear();
+            productsByWord.clear();
+            wordsByProduct.clear();
+            entries.forEach(this::index);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Trigram index built with {} words", productsByWord.size());
+    }
+
+    @Override
+    public void upsert(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            evict(entry.id());
+            index(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            evict(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ---------- Queries ---------- */
+
+    /** Best fuzzy matches first; empty when the index is not built yet. */
+    public Optional<List<Hit>> search(String text, int limit) {
+        if (!ready) return Optional.empty();
+
+        List<String> typed = TextAnalyzer.tokenize(text).stream().distinct().toList();
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+            for (String word : typed) {
+                Map<Long, Double> best = new HashMap<>();
+                similarWords(word).forEach((candidate, similarity) -> {
+                    for (Long productId : productsByWord.get(candidate)) {
+                        best.merge(productId, similarity, Math::max);
+                    }
+                });
+                best.forEach((productId, similarity) -> scores.merge(productId, similarity, Double::sum));
+            }
+
+            return Optional.of(scores.entrySet().stream()
+                    .map(e -> new Hit(e.getKey(), e.getValue()))
+                    .sorted(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::productId))
+                    .limit(limit)
+                    .toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Every fuzzy match, best first, e.g. to page through them; empty when the index is not built yet. */
+    public Optional<List<Hit>> searchAll(String text) {
+        return search(text, Integer.MAX_VALUE);
+    }
+
+    /* ---------- Internals ---------- */
+
+    private Map<String, Double> similarWords(String word) {
+        Set<String> trigrams = TextAnalyzer.trigrams(word);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : trigrams) {
+            for (String candidate : wordsByTrigram.getOrDefault(trigram, Set.of())) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+
+        Map<String, Double> similar = new HashMap<>();
+        shared.forEach((candidate, common) -> {
+            int union = trigrams.size() + TextAnalyzer.trigrams(candidate).size() - common;
+            double similarity = (double) common / union;
+            if (similarity >= THRESHOLD) similar.put(candidate, similarity);
+        });
+        return similar;
+    }
+
+    private void index(CatalogEntry entry) {
+        Set<String> words = new HashSet<>();
+        words.addAll(TextAnalyzer.tokenize(entry.name()));
+        words.addAll(TextAnalyzer.tokenize(entry.brand()));
+        words.addAll(TextAnalyzer.tokenize(entry.model()));
+
+        wordsByProduct.put(entry.id(), words);
+        for (String word : words) {
+            Set<Long> products = productsByWord.computeIfAbsent(word, w -> new HashSet<>());
+            if (products.isEmpty()) {
+                TextAnalyzer.trigrams(word).forEach(trigram ->
+                        wordsByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(word));
+            }
+            products.add(entry.id());
+        }
+    }
+
+    private void evict(Long productId) {
+        Set<String> words = wordsByProduct.remove(productId);
+        if (words == null) return;
+
+        for (String word : words) {
+            Set<Long> products = productsByWord.get(word);
+            if (products == null) continue;
+            products.remove(productId);
+            if (products.isEmpty()) {
+                productsByWord.remove(word);
+                for (String trigram : TextAnalyzer.trigrams(word)) {
+                    Set<String> candidates = wordsByTrigram.get(trigram);
+                    if (candidates != null) {
+                        candidates.remove(word);
+                        if (candidates.isEmpty()) wordsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+}
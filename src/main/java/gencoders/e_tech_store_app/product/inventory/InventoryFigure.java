@@ -0,0 +1,21 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import gencoders.e_tech_store_app.product.catalog.CatalogEntry;
+
+import java.math.BigDecimal;
+
+/** The columns of one active product that inventory statistics aggregate. */
+public record InventoryFigure(Long productId, Long categoryId, String category, Integer stockQuantity, BigDecimal price) {
+
+    static InventoryFigure from(CatalogEntry entry) {
+        return new InventoryFigure(entry.id(), entry.categoryId(), entry.category(), entry.stockQuantity(), entry.price());
+    }
+
+    long units() {
+        return stockQuantity == null ? 0 : stockQuantity;
+    }
+
+    BigDecimal value() {
+        return price == null ? BigDecimal.ZERO : price.multiply(BigDecimal.valueOf(units()));
+    }
+}
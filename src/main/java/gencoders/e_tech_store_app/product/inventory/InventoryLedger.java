@@ -0,0 +1,183 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only history of every stock change.
+ * <p>
+ * Each change is one insert in the transaction that changed the stock, so
+ * writers never update a shared row here and the history cannot disagree
+ * with the committed stock. Ledger stock is the product's last snapshot plus
+ * the movements after it; a background compactor rolls settled movements
+ * into the snapshots so that tail stays short, then reports any product
+ * whose stock column no longer matches its ledger. Movements are kept after
+ * compaction as the audit trail and timeline.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryLedger {
+
+    public static final int MAX_TIMELINE_PAGE = 200;
+
+    private static final String INSERT_MOVEMENT = """
+            INSERT INTO inventory_movements (product_id, type, quantity, order_id, created_at)
+            VALUES (:productId, :type, :quantity, :orderId, :now)
+            """;
+
+    private static final String LEDGER_STOCK = """
+            SELECT COALESCE(s.stock, 0) + COALESCE(
+                       (SELECT SUM(m.quantity) FROM inventory_movements m
+                        WHERE m.product_id = :productId AND m.id > COALESCE(s.last_movement_id, 0)), 0)
+            FROM (SELECT 1) one
+            LEFT JOIN inventory_snapshots s ON s.product_id = :productId
+            """;
+
+    // Only movements older than the grace period are rolled in, so a transaction
+    // that drew a lower id but commits later is never skipped
+    private static final String COMPACT = """
+            INSERT INTO inventory_snapshots (product_id, stock, last_movement_id, taken_at)
+            SELECT m.product_id, COALESCE(s.stock, 0) + SUM(m.quantity), MAX(m.id), :now
+            FROM inventory_movements m
+            LEFT JOIN inventory_snapshots s ON s.product_id = m.product_id
+            WHERE m.id > COALESCE(s.last_movement_id, 0) AND m.created_at < :settledBefore
+            GROUP BY m.product_id, s.stock
+            ON CONFLICT (product_id) DO UPDATE
+                SET stock = EXCLUDED.stock,
+                    last_movement_id = EXCLUDED.last_movement_id,
+                    taken_at = EXCLUDED.taken_at
+            """;
+
+    private static final String DRIFT = """
+            SELECT p.id
+            FROM products p
+            LEFT JOIN inventory_snapshots s ON s.product_id = p.id
+            LEFT JOIN inventory_movements m ON m.product_id = p.id AND m.id > COALESCE(s.last_movement_id, 0)
+            GROUP BY p.id, p.stock_quantity, s.stock
+            HAVING COALESCE(p.stock_quantity, 0) <> COALESCE(s.stock, 0) + COALESCE(SUM(m.quantity), 0)
+            ORDER BY p.id
+            """;
+
+    private record Row(Long id, MovementType type, int quantity, Long orderId, LocalDateTime createdAt) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${app.inventory-ledger.compact-grace-seconds:300}")
+    private long compactGraceSeconds;
+
+    /* ---------- Writes ---------- */
+
+    /** Records a signed stock change; must join the transaction that made it. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long productId, MovementType type, int quantity, Long orderId) {
+        if (quantity == 0) return;
+        jdbcTemplate.update(INSERT_MOVEMENT, movement(productId, type, quantity, orderId, LocalDateTime.now()));
+    }
+
+    /** Records signed stock changes per product as one batch. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(MovementType type, Map<Long, Integer> quantities, Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        SqlParameterSource[] batch = quantities.entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .map(e -> movement(e.getKey(), type, e.getValue(), orderId, now))
+                .toArray(SqlParameterSource[]::new);
+        if (batch.length > 0) jdbcTemplate.batchUpdate(INSERT_MOVEMENT, batch);
+    }
+
+    /* ---------- Queries ---------- */
+
+    /** Stock derived from the last snapshot and the movements after it. */
+    @Transactional(readOnly = true)
+    public int stock(Long productId) {
+        Integer stock = jdbcTemplate.queryForObject(LEDGER_STOCK,
+                new MapSqlParameterSource("productId", productId), Integer.class);
+        return stock == null ? 0 : stock;
+    }
+
+    /** Movements newest first with the running balance, paged by movement id. */
+    @Transactional(readOnly = true)
+    public StockTimeline timeline(Long productId, Long before, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("limit", limit + 1);
+
+        int stock = stock(productId);
+        int balance = stock;
+        if (before != null) {
+            params.addValue("before", before);
+            Integer newer = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(quantity), 0) FROM inventory_movements WHERE product_id = :productId AND id >= :before",
+                    params, Integer.class);
+            balance -= newer == null ? 0 : newer;
+        }
+
+        List<Row> rows = jdbcTemplate.query(
+                "SELECT id, type, quantity, order_id, created_at FROM inventory_movements " +
+                        "WHERE product_id = :productId " + (before != null ? "AND id < :before " : "") +
+                        "ORDER BY id DESC LIMIT :limit",
+                params,
+                (rs, i) -> new Row(
+                        rs.getLong("id"),
+                        MovementType.valueOf(rs.getString("type")),
+                        rs.getInt("quantity"),
+                        rs.getObject("order_id", Long.class),
+                        rs.getTimestamp("created_at").toLocalDateTime()));
+
+        boolean more = rows.size() > limit;
+        List<StockMovement> movements = new ArrayList<>(Math.min(rows.size(), limit));
+        for (Row row : rows.subList(0, Math.min(rows.size(), limit))) {
+            movements.add(new StockMovement(row.id(), row.type(), row.quantity(), balance, row.orderId(), row.createdAt()));
+            balance -= row.quantity();
+        }
+        Long nextBefore = more ? movements.get(movements.size() - 1).id() : null;
+        return new StockTimeline(productId, stock, movements, nextBefore);
+    }
+
+    /* ---------- Compaction ---------- */
+
+    @Scheduled(fixedDelayString = "${app.inventory-ledger.compact-interval-ms:300000}")
+    @Transactional
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        int products = jdbcTemplate.update(COMPACT, new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("settledBefore", now.minusSeconds(compactGraceSeconds)));
+        if (products > 0) {
+            log.debug("Inventory ledger compacted for {} products", products);
+        }
+
+        List<Long> drifted = jdbcTemplate.queryForList(DRIFT, new MapSqlParameterSource(), Long.class);
+        if (!drifted.isEmpty()) {
+            log.warn("Stock of {} products differs from the inventory ledger: {}", drifted.size(),
+                    drifted.subList(0, Math.min(drifted.size(), 20)));
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private static MapSqlParameterSource movement(Long productId, MovementType type, int quantity,
+                                                  Long orderId, LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("type", type.name())
+                .addValue("quantity", quantity)
+                .addValue("orderId", orderId, Types.BIGINT)
+                .addValue("now", now);
+    }
+}
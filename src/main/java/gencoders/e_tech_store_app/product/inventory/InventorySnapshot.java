@@ -0,0 +1,22 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Admin dashboard inventory figures over active products. Value is units in
+ * stock times list price.
+ *
+ * @param reconciledAt when the figures were last checked against the database
+ */
+public record InventorySnapshot(long activeProducts,
+                                long totalUnits,
+                                BigDecimal totalValue,
+                                long outOfStock,
+                                List<CategoryInventory> categories,
+                                LocalDateTime reconciledAt) {
+
+    public record CategoryInventory(Long categoryId, String category, long products, long units,
+                                    BigDecimal value, long outOfStock) {}
+}
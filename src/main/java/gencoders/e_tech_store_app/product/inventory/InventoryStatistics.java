@@ -0,0 +1,158 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import gencoders.e_tech_store_app.product.ProductRepository;
+import gencoders.e_tech_store_app.product.catalog.CatalogEntry;
+import gencoders.e_tech_store_app.product.catalog.CatalogListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inventory totals (products, units, value, out of stock), overall and per
+ * category, kept current from catalog changes.
+ * <p>
+ * Each product's last known figures are kept, so a stock or price change
+ * subtracts the old contribution and adds the new one. Stock decrements from
+ * orders, admin stock and price updates and bulk operations all reach this
+ * class through {@link gencoders.e_tech_store_app.product.catalog.CatalogFeed}.
+ * A scheduled reconciliation reloads the figures with one projection query
+ * and logs any drift it corrects. Dashboard reads never touch the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryStatistics implements CatalogListener {
+
+    private static final class Totals {
+        String category;
+        long products;
+        long units;
+        BigDecimal value = BigDecimal.ZERO;
+        long outOfStock;
+
+        void add(InventoryFigure f, int sign) {
+            products += sign;
+            units += sign * f.units();
+            value = sign > 0 ? value.add(f.value()) : value.subtract(f.value());
+            if (f.units() <= 0) outOfStock += sign;
+            if (sign > 0 && f.category() != null) category = f.category();
+        }
+
+        boolean sameAs(Totals other) {
+            return products == other.products && units == other.units
+                    && value.compareTo(other.value) == 0 && outOfStock == other.outOfStock;
+        }
+    }
+
+    private final ProductRepository productRepository;
+
+    private final Map<Long, InventoryFigure> figures = new HashMap<>();
+    private Totals overall = new Totals();
+    private Map<Long, Totals> byCategory = new HashMap<>();
+    private long mutations;
+    private volatile boolean ready;
+    private volatile LocalDateTime reconciledAt;
+
+    /* ---------- Feed ---------- */
+
+    @Override
+    public synchronized void rebuild(Collection<CatalogEntry> entries) {
+        replace(entries.stream().map(InventoryFigure::from).toList());
+        mutations++;
+        ready = true;
+        reconciledAt = LocalDateTime.now();
+    }
+
+    @Override
+    public synchronized void upsert(CatalogEntry entry) {
+        InventoryFigure figure = InventoryFigure.from(entry);
+        InventoryFigure previous = figures.put(entry.id(), figure);
+        if (previous != null) apply(previous, -1);
+        apply(figure, 1);
+        mutations++;
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        InventoryFigure previous = figures.remove(productId);
+        if (previous != null) apply(previous, -1);
+        mutations++;
+    }
+
+    /* ---------- Reconciliation ---------- */
+
+    /**
+     * Reloads the figures from the database. Skipped when a change arrived while
+     * the query ran, since the loaded rows may predate it; the next run catches up.
+     */
+    @Scheduled(initialDelayString = "${app.inventory-stats.reconcile-interval-ms:600000}",
+               fixedDelayString = "${app.inventory-stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        long before;
+        synchronized (this) {
+            before = mutations;
+        }
+        List<InventoryFigure> loaded = productRepository.findInventoryFigures();
+
+        synchronized (this) {
+            if (ready && mutations != before) {
+                log.debug("Inventory reconciliation skipped: catalog changed while loading");
+                return;
+            }
+            Totals previous = overall;
+            replace(loaded);
+            if (ready && !previous.sameAs(overall)) {
+                log.warn("Inventory statistics drifted: {} products / {} units / {} value corrected to {} / {} / {}",
+                        previous.products, previous.units, previous.value,
+                        overall.products, overall.units, overall.value);
+            }
+            ready = true;
+            reconciledAt = LocalDateTime.now();
+        }
+    }
+
+    /* ---------- Queries ---------- */
+
+    public InventorySnapshot snapshot() {
+        if (!ready) reconcile();
+
+        synchronized (this) {
+            List<InventorySnapshot.CategoryInventory> categories = byCategory.entrySet().stream()
+                    .map(e -> new InventorySnapshot.CategoryInventory(e.getKey(), e.getValue().category,
+                            e.getValue().products, e.getValue().units, e.getValue().value, e.getValue().outOfStock))
+                    .sorted(Comparator.comparing(InventorySnapshot.CategoryInventory::category,
+                            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                    .toList();
+            return new InventorySnapshot(overall.products, overall.units, overall.value, overall.outOfStock,
+                    categories, reconciledAt);
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private void replace(Collection<InventoryFigure> loaded) {
+        figures.clear();
+        overall = new Totals();
+        byCategory = new HashMap<>();
+        loaded.forEach(f -> {
+            figures.put(f.productId(), f);
+            apply(f, 1);
+        });
+    }
+
+    private void apply(InventoryFigure f, int sign) {
+        overall.add(f, sign);
+        Totals category = byCategory.computeIfAbsent(f.categoryId(), id -> new Totals());
+        category.add(f, sign);
+        if (category.products == 0) byCategory.remove(f.categoryId());
+    }
+}
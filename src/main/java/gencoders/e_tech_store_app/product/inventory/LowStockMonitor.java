@@ -0,0 +1,148 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import gencoders.e_tech_store_app.product.ProductRepository;
+import gencoders.e_tech_store_app.product.catalog.CatalogEntry;
+import gencoders.e_tech_store_app.product.catalog.CatalogListener;
+import gencoders.e_tech_store_app.role.ERole;
+import gencoders.e_tech_store_app.service.EmailService;
+import gencoders.e_tech_store_app.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Low-stock detection driven by catalog changes instead of threshold scans.
+ * <p>
+ * The stock level and threshold of every active product are kept in memory.
+ * An alert is raised only when a stock decrease takes a product from above
+ * its threshold to at or below it, whatever caused the change (orders, admin
+ * updates, imports). Alerts are coalesced per product and mailed to the
+ * admins as one digest per interval; a product restocked before the digest
+ * goes out is dropped from it. Until the levels are loaded, or when the
+ * catalog index is disabled, the low-stock report is answered by the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LowStockMonitor implements CatalogListener {
+
+    private record Level(String name, int stock, Integer threshold) {}
+
+    private final EmailService emailService;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+
+    @Value("${app.low-stock.default-threshold:5}")
+    private int defaultThreshold;
+
+    private final Map<Long, Level> levels = new HashMap<>();
+    private final Map<Long, Level> pending = new LinkedHashMap<>();
+
+    private volatile boolean ready;
+
+    /* ---------- Feed ---------- */
+
+    /** Startup and full reloads establish levels without alerting. */
+    @Override
+    public synchronized void rebuild(Collection<CatalogEntry> entries) {
+        levels.clear();
+        entries.forEach(entry -> levels.put(entry.id(), levelOf(entry)));
+        ready = true;
+    }
+
+    @Override
+    public synchronized void upsert(CatalogEntry entry) {
+        Level current = levelOf(entry);
+        Level previous = levels.put(entry.id(), current);
+        if (previous == null) return;
+
+        int threshold = thresholdOf(current);
+        if (current.stock() < previous.stock() && previous.stock() > threshold && current.stock() <= threshold) {
+            pending.put(entry.id(), current);
+        } else if (pending.containsKey(entry.id())) {
+            pending.put(entry.id(), current);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        levels.remove(productId);
+        pending.remove(productId);
+    }
+
+    /* ---------- Queries ---------- */
+
+    /**
+     * Active products at or below the given stock level, or at or below their
+     * own threshold when none is given; lowest stock first.
+     */
+    public List<Long> lowStockProductIds(Integer threshold) {
+        if (!ready) {
+            return threshold != null
+                    ? productRepository.findActiveIdsWithStockAtMost(threshold)
+                    : productRepository.findActiveIdsAtOrBelowThreshold(defaultThreshold);
+        }
+        synchronized (this) {
+            return matching(threshold);
+        }
+    }
+
+    /* ---------- Digest ---------- */
+
+    @Scheduled(fixedDelayString = "${app.low-stock.digest-interval-ms:900000}")
+    public void sendDigest() {
+        List<String> lines = new ArrayList<>();
+        synchronized (this) {
+            pending.forEach((productId, level) -> {
+                if (level.stock() <= thresholdOf(level)) {
+                    lines.add(String.format("#%d %s: %d left (threshold %d)",
+                            productId, level.name(), level.stock(), thresholdOf(level)));
+                }
+            });
+            pending.clear();
+        }
+        if (lines.isEmpty()) return;
+
+        List<String> admins = userRepository.findEmailsByRole(ERole.ROLE_ADMIN);
+        if (admins.isEmpty()) {
+            log.warn("Low-stock digest for {} products not sent: no admin recipients", lines.size());
+            return;
+        }
+        try {
+            emailService.sendLowStockDigest(admins, lines);
+            log.info("Low-stock digest for {} products sent to {} admins", lines.size(), admins.size());
+        } catch (RuntimeException e) {
+            log.error("Could not send low-stock digest for {} products", lines.size(), e);
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private List<Long> matching(Integer threshold) {
+        return levels.entrySet().stream()
+                .filter(e -> e.getValue().stock() <= (threshold != null ? threshold : thresholdOf(e.getValue())))
+                .sorted(Comparator.comparingInt((Map.Entry<Long, Level> e) -> e.getValue().stock())
+                        .thenComparing(Map.Entry::getKey))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static Level levelOf(CatalogEntry entry) {
+        int stock = entry.stockQuantity() == null ? 0 : entry.stockQuantity();
+        return new Level(entry.name(), stock, entry.lowStockThreshold());
+    }
+
+    private int thresholdOf(Level level) {
+        return level.threshold() != null ? level.threshold() : defaultThreshold;
+    }
+}
@@ -0,0 +1,12 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+public enum MovementType {
+    /** Units taken by an order. */
+    SALE,
+    /** Units received: initial stock, imports and stock raised by an admin. */
+    RESTOCK,
+    /** Stock lowered by an admin, e.g. after a count. */
+    ADJUSTMENT,
+    /** Units of an unpaid or cancelled order returned to stock. */
+    RESERVATION_RELEASE
+}
@@ -0,0 +1,10 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+public enum ReservationStatus {
+    /** Units are held for an unpaid order. */
+    ACTIVE,
+    /** The order was paid; the units are sold. */
+    CONVERTED,
+    /** Payment failed or the hold expired; the units went back to stock. */
+    RELEASED
+}
@@ -0,0 +1,11 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import java.time.LocalDateTime;
+
+/** One ledger entry with the product's stock right after it. */
+public record StockMovement(Long id,
+                            MovementType type,
+                            int quantity,
+                            int balanceAfter,
+                            Long orderId,
+                            LocalDateTime createdAt) {}
@@ -0,0 +1,48 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import gencoders.e_tech_store_app.payment.Mtn.PaymentStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /** MoMo payment states in which the collection can still succeed. */
+    List<PaymentStatus> PAYMENT_IN_FLIGHT = List.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING);
+
+    List<StockReservation> findByOrderIdAndStatus(Long orderId, ReservationStatus status);
+
+    // Expiry sweep: served by the (status, expires_at) index, oldest first; orders
+    // with a MoMo payment in flight are left to the payment's settlement
+    @Query("""
+           SELECT r.orderId FROM StockReservation r
+           WHERE r.status = :status AND r.expiresAt <= :now
+             AND NOT EXISTS (SELECT 1 FROM OrderPaymentEntity p
+                             WHERE p.orderId = CAST(r.orderId AS String) AND p.paymentStatus IN :inFlight)
+           GROUP BY r.orderId
+           ORDER BY MIN(r.expiresAt)
+           """)
+    List<Long> findExpiredOrderIds(ReservationStatus status, LocalDateTime now,
+                                   Collection<PaymentStatus> inFlight, Limit limit);
+
+    @Query("""
+           SELECT COUNT(p) > 0 FROM OrderPaymentEntity p
+           WHERE p.orderId = CAST(:orderId AS String) AND p.paymentStatus IN :inFlight
+           """)
+    boolean hasPaymentInFlight(Long orderId, Collection<PaymentStatus> inFlight);
+
+    // Compare-and-set on the order's holds: only one of a racing payment and expiry wins
+    @Modifying
+    @Query("""
+           UPDATE StockReservation r SET r.status = :to, r.settledAt = :now
+           WHERE r.orderId = :orderId AND r.status = :from
+           """)
+    int transition(Long orderId, ReservationStatus from, ReservationStatus to, LocalDateTime now);
+}
@@ -0,0 +1,203 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import gencoders.e_tech_store_app.order.Order;
+import gencoders.e_tech_store_app.order.OrderCancellationEvent;
+import gencoders.e_tech_store_app.order.OrderPaymentSettledEvent;
+import gencoders.e_tech_store_app.order.OrderRepository;
+import gencoders.e_tech_store_app.order.OrderStatus;
+import gencoders.e_tech_store_app.payment.PaymentStatus;
+import gencoders.e_tech_store_app.product.PaymentProcessedEvent;
+import gencoders.e_tech_store_app.product.ProductRepository;
+import gencoders.e_tech_store_app.product.ProductsBulkChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-limited stock holds for unpaid orders.
+ * <p>
+ * Units are taken from {@code stock_quantity} when the order is placed, so
+ * the stock column is already the available-to-sell figure every listing
+ * reads; a hold records what must be given back. A completed payment turns
+ * the holds into a sale. A failed payment, a cancelled order or an expired
+ * hold returns the units to stock and cancels the order if still pending.
+ * Expiry is an indexed sweep over active holds ordered by deadline, in
+ * batches, each order released in its own transaction. Every settlement is
+ * a compare-and-set on the hold status, so a payment racing the sweep is
+ * applied exactly once. Holds of an order whose MoMo collection is still in
+ * flight do not expire; the collection's settlement (or its timeout) converts
+ * or releases them, so a customer approving late never pays for a cancelled
+ * order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final InventoryLedger inventoryLedger;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.reservations.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    @Value("${app.reservations.sweep-batch-size:200}")
+    private int sweepBatchSize;
+
+    /* ---------- Lifecycle ---------- */
+
+    /** Records the units already taken for a new order as expiring holds. */
+    @Transactional
+    public void hold(Long orderId, Map<Long, Integer> quantities) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(ttlMinutes);
+        reservationRepository.saveAll(quantities.entrySet().stream()
+                .map(e -> new StockReservation(orderId, e.getKey(), e.getValue(), now, expiresAt))
+                .toList());
+    }
+
+    /**
+     * Turns the order's holds into a sale. A payment confirmed after the holds
+     * expired takes the units again when they are still in stock.
+     */
+    @Transactional
+    public void convert(Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (reservationRepository.transition(orderId, ReservationStatus.ACTIVE, ReservationStatus.CONVERTED, now) > 0) {
+            return;
+        }
+
+        List<StockReservation> released = reservationRepository.findByOrderIdAndStatus(orderId, ReservationStatus.RELEASED);
+        if (released.isEmpty()
+                || reservationRepository.transition(orderId, ReservationStatus.RELEASED, ReservationStatus.CONVERTED, now) == 0) {
+            return;
+        }
+
+        Map<Long, Integer> taken = new HashMap<>();
+        int missing = 0;
+        for (StockReservation r : released) {
+            if (productRepository.decrementStockIfAvailable(r.getProductId(), r.getQuantity(), now) == 1) {
+                taken.merge(r.getProductId(), -r.getQuantity(), Integer::sum);
+            } else {
+                missing++;
+            }
+        }
+        inventoryLedger.recordAll(MovementType.SALE, taken, orderId);
+        if (!taken.isEmpty()) {
+            eventPublisher.publishEvent(ProductsBulkChangedEvent.stockChanged(this, taken.keySet()));
+        }
+
+        if (missing > 0) {
+            // Units taken so far stay taken; the order needs manual handling
+            log.error("Order {} was paid after its stock hold expired and {} of {} lines are no longer in stock",
+                    orderId, missing, released.size());
+            return;
+        }
+        Map<Long, Integer> sold = new HashMap<>();
+        released.forEach(r -> sold.merge(r.getProductId(), r.getQuantity(), Integer::sum));
+        orderRepository.findById(orderId)
+                .filter(order -> order.getStatus() == OrderStatus.CANCELLED)
+                .ifPresent(order -> {
+                    order.setStatus(OrderStatus.PROCESSING);
+                    eventPublisher.publishEvent(new OrderCancellationEvent(this, orderId, sold, false));
+                });
+        log.info("Order {} was paid after its stock hold expired; stock taken again", orderId);
+    }
+
+    /** Returns the order's held units to stock and cancels the order if still pending. */
+    @Transactional
+    public void release(Long orderId) {
+        List<StockReservation> holds = reservationRepository.findByOrderIdAndStatus(orderId, ReservationStatus.ACTIVE);
+        if (holds.isEmpty()) return;
+        // Lost the race to a payment or another release
+        if (reservationRepository.transition(orderId, ReservationStatus.ACTIVE, ReservationStatus.RELEASED,
+                LocalDateTime.now()) == 0) {
+            return;
+        }
+
+        Map<Long, Integer> returned = new HashMap<>();
+        holds.forEach(hold -> {
+            productRepository.adjustStockQuantity(hold.getProductId(), hold.getQuantity());
+            returned.merge(hold.getProductId(), hold.getQuantity(), Integer::sum);
+        });
+        inventoryLedger.recordAll(MovementType.RESERVATION_RELEASE, returned, orderId);
+        orderRepository.findById(orderId)
+                .filter(order -> order.getStatus() == OrderStatus.PENDING)
+                .ifPresent(order -> {
+                    order.setStatus(OrderStatus.CANCELLED);
+                    eventPublisher.publishEvent(new OrderCancellationEvent(this, orderId, returned, true));
+                });
+        eventPublisher.publishEvent(ProductsBulkChangedEvent.stockChanged(this, returned.keySet()));
+    }
+
+    /* ---------- Payment outcomes ---------- */
+
+    @EventListener
+    @Transactional
+    public void onPaymentProcessed(PaymentProcessedEvent event) {
+        Order order = event.getPayment().getOrder();
+        if (order == null) return;
+        if (event.getPayment().getStatus() == PaymentStatus.COMPLETED) {
+            convert(order.getId());
+        } else if (event.getPayment().getStatus() == PaymentStatus.FAILED) {
+            release(order.getId());
+        }
+    }
+
+    @EventListener
+    @Transactional
+    public void onOrderPaymentSettled(OrderPaymentSettledEvent event) {
+        if (event.isSuccessful()) {
+            convert(event.getOrderId());
+        } else {
+            release(event.getOrderId());
+        }
+    }
+
+    /* ---------- Expiry ---------- */
+
+    @Scheduled(fixedDelayString = "${app.reservations.sweep-interval-ms:30000}")
+    public void releaseExpired() {
+        int released = 0;
+        List<Long> orderIds;
+        do {
+            orderIds = reservationRepository.findExpiredOrderIds(ReservationStatus.ACTIVE, LocalDateTime.now(),
+                    StockReservationRepository.PAYMENT_IN_FLIGHT, Limit.of(sweepBatchSize));
+            for (Long orderId : orderIds) {
+                try {
+                    // Re-checked in the release transaction: a collection may have started since the query
+                    Boolean done = transactionTemplate.execute(status -> {
+                        if (reservationRepository.hasPaymentInFlight(orderId, StockReservationRepository.PAYMENT_IN_FLIGHT)) {
+                            return false;
+                        }
+                        release(orderId);
+                        return true;
+                    });
+                    if (Boolean.TRUE.equals(done)) released++;
+                } catch (RuntimeException e) {
+                    log.error("Could not release expired stock hold of order {}", orderId, e);
+                    return;
+                }
+            }
+        } while (orderIds.size() == sweepBatchSize);
+
+        if (released > 0) {
+            log.info("Released expired stock holds of {} orders", released);
+        }
+    }
+}
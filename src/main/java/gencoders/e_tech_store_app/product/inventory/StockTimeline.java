@@ -0,0 +1,12 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import java.util.List;
+
+/**
+ * A page of a product's stock history, newest first. {@code nextBefore}
+ * fetches the following page and is null on the last one.
+ */
+public record StockTimeline(Long productId,
+                            int stock,
+                            List<StockMovement> movements,
+                            Long nextBefore) {}
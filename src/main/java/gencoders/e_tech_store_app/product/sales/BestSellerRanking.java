@@ -0,0 +1,194 @@
+package gencoders.e_tech_store_app.product.sales;
+
+import gencoders.e_tech_store_app.order.OrderCancellationEvent;
+import gencoders.e_tech_store_app.order.OrderPlacedEvent;
+import gencoders.e_tech_store_app.product.ProductPreviewDto;
+import gencoders.e_tech_store_app.product.catalog.CatalogEntry;
+import gencoders.e_tech_store_app.product.catalog.CatalogListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Best-sellers ranking kept current as orders are placed and cancelled.
+ * <p>
+ * Units sold per product are persisted in {@code product_sales}, incremented
+ * inside the order transaction and decremented inside the one that cancels
+ * it, so the counters keep covering the non-cancelled orders they were seeded
+ * from. In memory, active products are held in sorted sets (overall and per
+ * category) keyed by units sold, so a sale is a remove/insert of one element
+ * and a top-N read is a walk over the first N.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BestSellerRanking implements CatalogListener {
+
+    private static final Comparator<Rank> ORDER =
+            Comparator.comparingLong(Rank::units).reversed().thenComparing(Rank::productId);
+
+    private record Rank(Long productId, long units) {}
+
+    private final ProductSalesRepository productSalesRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Long> unitsSold = new HashMap<>();
+    private final Map<Long, CatalogEntry> products = new HashMap<>();
+    private final NavigableSet<Rank> overall = new TreeSet<>(ORDER);
+    private final Map<Long, NavigableSet<Rank>> byCategory = new HashMap<>();
+
+    private volatile boolean ready;
+
+    /* ---------- Feed ---------- */
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        List<ProductSales> counters = productSalesRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            unitsSold.clear();
+            products.clear();
+            overall.clear();
+            byCategory.clear();
+            counters.forEach(c -> unitsSold.put(c.getProductId(), c.getUnitsSold()));
+            entries.forEach(this::rank);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Best-sellers ranking built from {} sales counters", counters.size());
+    }
+
+    @Override
+    public void upsert(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            unrank(entry.id());
+            rank(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            unrank(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ---------- Sales ---------- */
+
+    /** Persists the counters as part of the order transaction. */
+    @EventListener
+    public void recordSales(OrderPlacedEvent event) {
+        persist(event.getQuantities(), 1);
+    }
+
+    /** A cancelled order's units stop counting, and count again if the order is reinstated. */
+    @EventListener
+    public void recordCancellation(OrderCancellationEvent event) {
+        persist(event.getQuantities(), event.isCancelled() ? -1 : 1);
+    }
+
+    /** Moves the sold products up the ranking once the order is committed. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void applySales(OrderPlacedEvent event) {
+        apply(event.getQuantities(), 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void applyCancellation(OrderCancellationEvent event) {
+        apply(event.getQuantities(), event.isCancelled() ? -1 : 1);
+    }
+
+    /* ---------- Queries ---------- */
+
+    /**
+     * Top sellers overall or within one category, best first. Empty when the
+     * ranking is not built yet and callers should fall back to the database.
+     */
+    public Optional<List<ProductPreviewDto>> top(Long categoryId, int limit) {
+        if (!ready) return Optional.empty();
+
+        lock.readLock().lock();
+        try {
+            NavigableSet<Rank> ranks = categoryId == null ? overall : byCategory.get(categoryId);
+            if (ranks == null) return Optional.of(List.of());
+            return Optional.of(ranks.stream()
+                    .limit(limit)
+                    .map(rank -> new ProductPreviewDto(products.get(rank.productId())))
+                    .toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private void persist(Map<Long, Integer> quantities, int sign) {
+        quantities.forEach((productId, units) -> productSalesRepository.addUnitsSold(productId, (long) sign * units));
+    }
+
+    private void apply(Map<Long, Integer> quantities, int sign) {
+        if (!ready) return;
+
+        lock.writeLock().lock();
+        try {
+            quantities.forEach((productId, units) -> {
+                CatalogEntry entry = products.get(productId);
+                if (entry != null) unrank(productId);
+                unitsSold.merge(productId, (long) sign * units, Long::sum);
+                if (entry != null) rank(entry);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Only products that have sold at least once are ranked. */
+    private void rank(CatalogEntry entry) {
+        products.put(entry.id(), entry);
+        Long units = unitsSold.get(entry.id());
+        if (units == null || units <= 0) return;
+
+        Rank rank = new Rank(entry.id(), units);
+        overall.add(rank);
+        if (entry.categoryId() != null) {
+            byCategory.computeIfAbsent(entry.categoryId(), id -> new TreeSet<>(ORDER)).add(rank);
+        }
+    }
+
+    private void unrank(Long productId) {
+        CatalogEntry entry = products.remove(productId);
+        Long units = unitsSold.get(productId);
+        if (entry == null || units == null) return;
+
+        Rank rank = new Rank(productId, units);
+        overall.remove(rank);
+        if (entry.categoryId() != null) {
+            NavigableSet<Rank> ranks = byCategory.get(entry.categoryId());
+            if (ranks != null) {
+                ranks.remove(rank);
+                if (ranks.isEmpty()) byCategory.remove(entry.categoryId());
+            }
+        }
+    }
+}
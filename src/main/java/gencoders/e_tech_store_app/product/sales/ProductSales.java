@@ -0,0 +1,25 @@
+package gencoders.e_tech_store_app.product.sales;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/** Running units-sold counter, one row per product that has ever sold. */
+@Entity
+@Table(name = "product_sales")
+@Getter @Setter @NoArgsConstructor
+public class ProductSales {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "units_sold", nullable = false)
+    private long unitsSold;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
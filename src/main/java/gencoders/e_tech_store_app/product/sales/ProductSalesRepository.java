@@ -0,0 +1,37 @@
+package gencoders.e_tech_store_app.product.sales;
+
+import gencoders.e_tech_store_app.product.ProductPreviewDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductSalesRepository extends JpaRepository<ProductSales, Long> {
+
+    // Single-statement increment (negative for a cancellation); creates the counter on a product's first sale
+    @Modifying
+    @Query(value = """
+           INSERT INTO product_sales (product_id, units_sold, updated_at)
+           VALUES (:productId, :units, now())
+           ON CONFLICT (product_id) DO UPDATE
+              SET units_sold = product_sales.units_sold + EXCLUDED.units_sold,
+                  updated_at = EXCLUDED.updated_at
+           """, nativeQuery = true)
+    int addUnitsSold(Long productId, long units);
+
+    // Database ranking, used while the in-memory ranking is not built
+    @Query("""
+           SELECT new gencoders.e_tech_store_app.product.ProductPreviewDto(
+                  p.id, p.name, p.imageUrl, p.price, p.discountPrice, p.brand, p.stockQuantity, p.featured)
+           FROM ProductSales s JOIN Product p ON p.id = s.productId
+           WHERE p.active = true
+             AND s.unitsSold > 0
+             AND (:categoryId IS NULL OR p.category.id = :categoryId)
+           ORDER BY s.unitsSold DESC, p.id
+           """)
+    List<ProductPreviewDto> findTopSellers(Long categoryId, Limit limit);
+}
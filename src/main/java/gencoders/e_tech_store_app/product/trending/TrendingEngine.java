@@ -0,0 +1,128 @@
+package gencoders.e_tech_store_app.product.trending;
+
+import gencoders.e_tech_store_app.order.OrderPlacedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * "Trending now" scores: shopper signals summed with exponential decay, so a
+ * signal loses half its weight every half-life.
+ * <p>
+ * Recording a signal only adds to a per-product {@link DoubleAdder}; nothing
+ * is locked and nothing touches the database. A scheduled tick drains the
+ * adders into the settled scores, decays them, recomputes the top list and
+ * upserts the products that received signals. Rows are stored with their
+ * timestamp, so scores reloaded after a restart are decayed for the downtime.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrendingEngine {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final double MIN_SCORE = 0.01;
+
+    private final TrendingScoreRepository trendingScoreRepository;
+
+    private final Map<Long, DoubleAdder> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Double> settled = new HashMap<>();
+    private LocalDateTime settledAt = LocalDateTime.now();
+
+    private volatile List<Long> top = List.of();
+
+    @Value("${app.trending.half-life-hours:24}")
+    private double halfLifeHours;
+
+    /* ---------- Signals ---------- */
+
+    public void record(Long productId, TrendingSignal signal) {
+        record(productId, signal, 1);
+    }
+
+    public void record(Long productId, TrendingSignal signal, int times) {
+        if (productId == null || times <= 0) return;
+        pending.computeIfAbsent(productId, id -> new DoubleAdder()).add(signal.weight() * times);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        event.getQuantities().forEach((productId, units) -> record(productId, TrendingSignal.ORDER, units));
+    }
+
+    /* ---------- Queries ---------- */
+
+    /** Product ids ranked by score as of the last tick, best first. */
+    public List<Long> top(int limit) {
+        List<Long> ranked = top;
+        return ranked.size() <= limit ? ranked : ranked.subList(0, limit);
+    }
+
+    /* ---------- Persistence ---------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        LocalDateTime now = LocalDateTime.now();
+        trendingScoreRepository.findAll().forEach(row -> {
+            double score = row.getScore() * decay(row.getUpdatedAt(), now);
+            if (score >= MIN_SCORE) settled.merge(row.getProductId(), score, Double::sum);
+        });
+        settledAt = now;
+        top = rank();
+        log.info("Trending engine loaded {} scores", settled.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.flush-interval-ms:60000}")
+    @Transactional
+    public synchronized void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        double factor = decay(settledAt, now);
+        settled.replaceAll((id, score) -> score * factor);
+        settledAt = now;
+
+        // Adders are never removed, so a concurrent record cannot land on a dropped one
+        Map<Long, Double> touched = new HashMap<>();
+        pending.forEach((productId, adder) -> {
+            double delta = adder.sumThenReset();
+            if (delta > 0) touched.put(productId, settled.merge(productId, delta, Double::sum));
+        });
+        settled.values().removeIf(score -> score < MIN_SCORE);
+
+        top = rank();
+        touched.forEach((productId, score) -> trendingScoreRepository.upsert(productId, score, now));
+        trendingScoreRepository.deleteStale(now.minusMinutes((long) (halfLifeHours * 60 * 20)));
+    }
+
+    /* ---------- Internals ---------- */
+
+    private List<Long> rank() {
+        return settled.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_LIMIT)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private double decay(LocalDateTime from, LocalDateTime to) {
+        double hours = Duration.between(from, to).toMillis() / 3_600_000d;
+        return hours <= 0 ? 1 : Math.pow(0.5, hours / halfLifeHours);
+    }
+}
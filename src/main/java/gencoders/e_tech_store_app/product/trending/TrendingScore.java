@@ -0,0 +1,26 @@
+package gencoders.e_tech_store_app.product.trending;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/** Decayed trending score of a product as of {@code updatedAt}. */
+@Entity
+@Table(name = "product_trending")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class TrendingScore {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package gencoders.e_tech_store_app.product.trending;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TrendingScoreRepository extends JpaRepository<TrendingScore, Long> {
+
+    @Modifying
+    @Query(value = """
+           INSERT INTO product_trending (product_id, score, updated_at)
+           VALUES (:productId, :score, :updatedAt)
+           ON CONFLICT (product_id) DO UPDATE
+              SET score = EXCLUDED.score,
+                  updated_at = EXCLUDED.updated_at
+           """, nativeQuery = true)
+    int upsert(Long productId, double score, LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM TrendingScore t WHERE t.updatedAt < :cutoff")
+    int deleteStale(LocalDateTime cutoff);
+}
@@ -0,0 +1,19 @@
+package gencoders.e_tech_store_app.product.trending;
+
+/** Shopper interactions that feed the trending score, weighted by intent. */
+public enum TrendingSignal {
+    VIEW(1),
+    WISHLIST_ADD(3),
+    CART_ADD(4),
+    ORDER(8);
+
+    private final double weight;
+
+    TrendingSignal(double weight) {
+        this.weight = weight;
+    }
+
+    public double weight() {
+        return weight;
+    }
+}
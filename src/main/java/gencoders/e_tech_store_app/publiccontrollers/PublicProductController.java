@@ -2,10 +2,15 @@ package gencoders.e_tech_store_app.publiccontrollers;
 
 import gencoders.e_tech_store_app.category.CategoryService;
 import gencoders.e_tech_store_app.config.MessageResponse;
+import gencoders.e_tech_store_app.exception.InvalidCursorException;
+import gencoders.e_tech_store_app.exception.ResourceNotFoundException;
 import gencoders.e_tech_store_app.product.ProductService;
+import gencoders.e_tech_store_app.product.StorefrontHome;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 
@@ -16,10 +21,30 @@ public class PublicProductController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final StorefrontHome storefrontHome;
 
-    public PublicProductController(ProductService productService, CategoryService categoryService) {
+    public PublicProductController(ProductService productService, CategoryService categoryService,
+                                   StorefrontHome storefrontHome) {
         this.productService = productService;
         this.categoryService = categoryService;
+        this.storefrontHome = storefrontHome;
+    }
+
+    @GetMapping("/public/home")
+    public ResponseEntity<?> getHome(WebRequest request) {
+        try {
+            StorefrontHome.Snapshot home = storefrontHome.current();
+            if (request.checkNotModified(home.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(home.etag()).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(home.etag())
+                    .body(home.json());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching home page: " + e.getMessage()));
+        }
     }
 
     @GetMapping("/public")
@@ -37,9 +62,22 @@ public class PublicProductController {
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String battery,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal
     ) {
         try {
+            // Any cursor parameter (empty for the first window) switches to keyset pagination
+            if (cursor != null) {
+                return ResponseEntity.ok(
+                        productService.getFilteredProductsByCursor(
+                                cursor, size, sortBy, sortDir, withTotal,
+                                category, brand, memory, protection,
+                                screenType, screenSize, minPrice, maxPrice,
+                                battery, search
+                        )
+                );
+            }
             return ResponseEntity.ok(
                     productService.getFilteredProducts(
                             page, size, sortBy, sortDir,
@@ -48,6 +86,8 @@ public class PublicProductController {
                             battery, search
                     )
             );
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new MessageResponse("Error fetching products: " + e.getMessage()));
@@ -55,16 +95,97 @@ public class PublicProductController {
     }
 
 
+    @GetMapping("/public/facets")
+    public ResponseEntity<?> getFacetCounts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) String memory,
+            @RequestParam(required = false) String protection,
+            @RequestParam(required = false) String screenType,
+            @RequestParam(required = false) String screenSize,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String battery,
+            @RequestParam(required = false) String search
+    ) {
+        try {
+            return ResponseEntity.ok(
+                    productService.getFacetCounts(
+                            category, brand, memory, protection,
+                            screenType, screenSize, minPrice, maxPrice,
+                            battery, search
+                    )
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching facet counts: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/public/price-histogram")
+    public ResponseEntity<?> getPriceHistogram(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) String memory,
+            @RequestParam(required = false) String protection,
+            @RequestParam(required = false) String screenType,
+            @RequestParam(required = false) String screenSize,
+            @RequestParam(required = false) String battery,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "20") int buckets
+    ) {
+        try {
+            return ResponseEntity.ok(
+                    productService.getPriceHistogram(
+                            category, brand, memory, protection,
+                            screenType, screenSize, battery, search, buckets
+                    )
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching price histogram: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/public/suggest")
+    public ResponseEntity<?> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "5") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(productService.suggest(prefix, limit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching suggestions: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/public/{id}")
     public ResponseEntity<?> getProductById(@PathVariable Long id) {
         try {
-            return ResponseEntity.ok(productService.getProductById(id));
+            return ResponseEntity.ok(productService.viewProduct(id));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("Product not found"));
         }
     }
 
+    @GetMapping("/public/{id}/related")
+    public ResponseEntity<?> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "4") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(productService.getRelatedProducts(id, limit));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Product not found"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching related products: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/public/categories")
     public ResponseEntity<?> getAllCategories() {
         try {
@@ -86,15 +207,28 @@ public class PublicProductController {
     }
 
     @GetMapping("/public/bestsellers")
-    public ResponseEntity<?> getBestSellers() {
+    public ResponseEntity<?> getBestSellers(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
         try {
-            return ResponseEntity.ok(productService.getBestSellers());
+            return ResponseEntity.ok(productService.getBestSellers(categoryId, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new MessageResponse("Error fetching best sellers: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/public/trending")
+    public ResponseEntity<?> getTrendingProducts(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(productService.getTrendingProducts(limit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching trending products: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/public/new-arrivals")
     public ResponseEntity<?> getNewArrivals() {
         try {
@@ -7,6 +7,8 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class EmailService {
 
@@ -32,4 +34,12 @@ public class EmailService {
         message.setText("Your One-Time Password (OTP) is: " + otp + "\nThis code will expire in 5 minutes.");
         mailSender.send(message);
     }
+
+    public void sendLowStockDigest(List<String> to, List<String> lines) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to.toArray(String[]::new));
+        message.setSubject("Low stock: " + lines.size() + " product(s) need restocking");
+        message.setText("These products dropped to their low-stock level:\n\n" + String.join("\n", lines));
+        mailSender.send(message);
+    }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package gencoders.e_tech_store_app.shoppingcart;
 import gencoders.e_tech_store_app.exception.ResourceNotFoundException;
 import gencoders.e_tech_store_app.product.Product;
 import gencoders.e_tech_store_app.product.ProductRepository;
+import gencoders.e_tech_store_app.product.trending.TrendingEngine;
+import gencoders.e_tech_store_app.product.trending.TrendingSignal;
 import gencoders.e_tech_store_app.user.UserRepository;
 import gencoders.e_tech_store_app.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,11 +26,14 @@ public class ShoppingCartService {
 
     private final UserRepository userRepository;
 
-    public ShoppingCartService(ShoppingCartRepository shoppingCartRepository, CartItemRepository cartItemRepository, ProductRepository productRepository, UserRepository userRepository) {
+    private final TrendingEngine trendingEngine;
+
+    public ShoppingCartService(ShoppingCartRepository shoppingCartRepository, CartItemRepository cartItemRepository, ProductRepository productRepository, UserRepository userRepository, TrendingEngine trendingEngine) {
         this.shoppingCartRepository = shoppingCartRepository;
         this.cartItemRepository = cartItemRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
+        this.trendingEngine = trendingEngine;
     }
 
     public ShoppingCart getCartByUser(Long userId) {
@@ -64,7 +69,9 @@ public class ShoppingCartService {
         }
 
         cart.calculateTotalPrice();
-        return shoppingCartRepository.save(cart);
+        ShoppingCart saved = shoppingCartRepository.save(cart);
+        trendingEngine.record(productId, TrendingSignal.CART_ADD);
+        return saved;
     }
 
     public ShoppingCart updateCartItemQuantity(Long userId, Long itemId, Integer quantity) {
@@ -0,0 +1,69 @@
+package gencoders.e_tech_store_app.storage;
+
+import gencoders.e_tech_store_app.exception.ImageUploadException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Uploads a batch of images concurrently on the bounded upload pool, so a
+ * batch takes about as long as its slowest image. A batch either uploads
+ * completely or leaves nothing behind: when one image fails, the ones that
+ * made it are deleted again.
+ */
+@Slf4j
+@Component
+public class ParallelImageUploader {
+
+    private final CloudinaryService cloudinaryService;
+    private final TaskExecutor executor;
+
+    public ParallelImageUploader(CloudinaryService cloudinaryService,
+                                 @Qualifier("imageUploadExecutor") TaskExecutor executor) {
+        this.cloudinaryService = cloudinaryService;
+        this.executor = executor;
+    }
+
+    /** Uploaded URLs in the order of {@code files}. */
+    public List<String> uploadAll(List<MultipartFile> files, String folder) {
+        if (files == null || files.isEmpty()) return List.of();
+
+        List<CompletableFuture<String>> uploads = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> cloudinaryService.uploadFile(file, folder), executor))
+                .toList();
+        try {
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            List<String> uploaded = uploads.stream()
+                    .filter(upload -> !upload.isCompletedExceptionally())
+                    .map(CompletableFuture::join)
+                    .toList();
+            deleteAll(uploaded);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IllegalArgumentException invalid) throw invalid;
+            throw new ImageUploadException(cause.getMessage(), cause);
+        }
+        return uploads.stream().map(CompletableFuture::join).toList();
+    }
+
+    /** Deletes uploads in the background; failures are logged, never thrown. */
+    public void deleteAll(Collection<String> urls) {
+        for (String url : new ArrayList<>(urls)) {
+            executor.execute(() -> {
+                try {
+                    cloudinaryService.deleteFile(url);
+                } catch (RuntimeException e) {
+                    log.warn("Could not roll back uploaded image {}", url, e);
+                }
+            });
+        }
+    }
+}
@@ -1,9 +1,12 @@
 // src/main/java/gencoders/e_tech_store_app/user/UserRepository.java
 package gencoders.e_tech_store_app.user;
 
+import gencoders.e_tech_store_app.role.ERole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,6 +15,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT u.email FROM User u JOIN u.roles r WHERE r.name = :role AND u.enabled = true AND u.email IS NOT NULL")
+    List<String> findEmailsByRole(ERole role);
     @Override
     Optional<User> findById(Long aLong);
 }
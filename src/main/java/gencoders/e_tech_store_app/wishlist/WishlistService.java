@@ -3,6 +3,8 @@ package gencoders.e_tech_store_app.wishlist;
 import gencoders.e_tech_store_app.exception.ResourceNotFoundException;
 import gencoders.e_tech_store_app.product.Product;
 import gencoders.e_tech_store_app.product.ProductRepository;
+import gencoders.e_tech_store_app.product.trending.TrendingEngine;
+import gencoders.e_tech_store_app.product.trending.TrendingSignal;
 import gencoders.e_tech_store_app.shoppingcart.ShoppingCartService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,6 +22,7 @@ public class WishlistService {
     private final WishlistRepository wishlistRepository;
     private final ProductRepository productRepository;
     private final ShoppingCartService cartService;
+    private final TrendingEngine trendingEngine;
 
     @Transactional(readOnly = true)
     public WishlistDto getUserWishlist(String userId, int page, int size) {
@@ -63,6 +66,9 @@ public class WishlistService {
         }
 
         wishlistRepository.save(wishlist);
+        if (!isInWishlist) {
+            trendingEngine.record(productId, TrendingSignal.WISHLIST_ADD);
+        }
 
         return mapToWishlistItemDto(product);
     }
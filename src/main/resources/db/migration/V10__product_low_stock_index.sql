@@ -0,0 +1,2 @@
+-- Low-stock report while the in-memory monitor is not loaded: active products by stock level
+CREATE INDEX IF NOT EXISTS idx_products_active_stock ON products (stock_quantity, id) WHERE active = true;
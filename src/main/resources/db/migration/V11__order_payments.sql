@@ -0,0 +1,34 @@
+-- Server-side record of each MoMo collection; settlement reads the order and amount from here
+CREATE TABLE IF NOT EXISTS order_payments
+(
+    id                   BIGSERIAL                   NOT NULL,
+    order_id             VARCHAR(255)                NOT NULL,
+    user_id              BIGINT,
+    momo_reference_id    VARCHAR(255),
+    external_id          VARCHAR(255),
+    amount               NUMERIC(12, 2)              NOT NULL,
+    currency             VARCHAR(255)                NOT NULL,
+    customer_phone       VARCHAR(255)                NOT NULL,
+    customer_name        VARCHAR(255)                NOT NULL,
+    customer_email       VARCHAR(255),
+    payment_description  VARCHAR(255),
+    order_items          TEXT,
+    payment_status       VARCHAR(255)                NOT NULL,
+    momo_transaction_id  VARCHAR(255),
+    error_reason         VARCHAR(255),
+    payment_initiated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    payment_completed_at TIMESTAMP WITHOUT TIME ZONE,
+    created_at           TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    updated_at           TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_order_payments PRIMARY KEY (id),
+    CONSTRAINT uc_order_payments_order UNIQUE (order_id),
+    CONSTRAINT uc_order_payments_reference UNIQUE (momo_reference_id),
+    CONSTRAINT uc_order_payments_external UNIQUE (external_id)
+);
+
+-- Tables created by Hibernate before this migration lack the owner
+ALTER TABLE order_payments ADD COLUMN IF NOT EXISTS user_id BIGINT;
+
+-- Settlement poll only ever looks at payments still in progress
+CREATE INDEX IF NOT EXISTS idx_order_payments_in_progress
+    ON order_payments (id) WHERE payment_status IN ('PENDING', 'PROCESSING');
@@ -0,0 +1,17 @@
+-- Typo-tolerant product search (similarity over name, brand and model)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS brand VARCHAR(100);
+
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS model VARCHAR(100);
+
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+    ON products USING gin (LOWER(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_products_brand_trgm
+    ON products USING gin (LOWER(brand) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_products_model_trgm
+    ON products USING gin (LOWER(model) gin_trgm_ops);
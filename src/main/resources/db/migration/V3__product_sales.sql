@@ -0,0 +1,19 @@
+-- Maintained best-sellers counters (one row per product that has sold)
+CREATE TABLE IF NOT EXISTS product_sales
+(
+    product_id BIGINT                      NOT NULL,
+    units_sold BIGINT                      NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+    CONSTRAINT pk_product_sales PRIMARY KEY (product_id)
+);
+
+-- Seed from the order history once; orders keep the counters current afterwards
+INSERT INTO product_sales (product_id, units_sold, updated_at)
+SELECT oi.product_id, SUM(oi.quantity), now()
+FROM order_items oi
+         JOIN orders o ON o.id = oi.order_id
+WHERE oi.product_id IS NOT NULL
+  AND oi.quantity IS NOT NULL
+  AND o.status <> 'CANCELLED'
+GROUP BY oi.product_id
+ON CONFLICT (product_id) DO NOTHING;
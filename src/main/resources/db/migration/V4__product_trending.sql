@@ -0,0 +1,8 @@
+-- Exponentially decayed trending scores, flushed periodically from memory
+CREATE TABLE IF NOT EXISTS product_trending
+(
+    product_id BIGINT                      NOT NULL,
+    score      DOUBLE PRECISION            NOT NULL,
+    updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_product_trending PRIMARY KEY (product_id)
+);
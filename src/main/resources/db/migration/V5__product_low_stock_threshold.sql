@@ -0,0 +1,2 @@
+-- Per-product low-stock alert level; NULL falls back to app.low-stock.default-threshold
+ALTER TABLE products ADD COLUMN IF NOT EXISTS low_stock_threshold INTEGER;
@@ -0,0 +1,19 @@
+-- Stock held for unpaid orders; released back to stock when payment fails or the hold expires
+CREATE TABLE IF NOT EXISTS stock_reservations
+(
+    id         BIGSERIAL                   NOT NULL,
+    order_id   BIGINT                      NOT NULL,
+    product_id BIGINT                      NOT NULL,
+    quantity   INTEGER                     NOT NULL,
+    status     VARCHAR(20)                 NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    settled_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_stock_reservations PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_order ON stock_reservations (order_id);
+
+-- Expiry sweep only ever looks at active holds
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_active_expiry
+    ON stock_reservations (expires_at) WHERE status = 'ACTIVE';
@@ -0,0 +1,29 @@
+-- Append-only stock movements; quantity is the signed change
+CREATE TABLE IF NOT EXISTS inventory_movements
+(
+    id         BIGSERIAL                   NOT NULL,
+    product_id BIGINT                      NOT NULL,
+    type       VARCHAR(30)                 NOT NULL,
+    quantity   INTEGER                     NOT NULL,
+    order_id   BIGINT,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_inventory_movements PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_product ON inventory_movements (product_id, id);
+
+-- Stock per product as of the last movement rolled in by the compactor
+CREATE TABLE IF NOT EXISTS inventory_snapshots
+(
+    product_id       BIGINT                      NOT NULL,
+    stock            INTEGER                     NOT NULL,
+    last_movement_id BIGINT                      NOT NULL,
+    taken_at         TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_inventory_snapshots PRIMARY KEY (product_id)
+);
+
+-- Existing stock is the opening balance of the ledger
+INSERT INTO inventory_snapshots (product_id, stock, last_movement_id, taken_at)
+SELECT id, COALESCE(stock_quantity, 0), 0, NOW()
+FROM products
+ON CONFLICT (product_id) DO NOTHING;
@@ -0,0 +1,14 @@
+-- Responses of requests sent with an Idempotency-Key, replayed on retries until they expire
+CREATE TABLE IF NOT EXISTS idempotency_keys
+(
+    scope         VARCHAR(60)                 NOT NULL,
+    idem_key      VARCHAR(100)                NOT NULL,
+    request_hash  CHAR(64)                    NOT NULL,
+    status_code   SMALLINT,
+    response_body TEXT,
+    created_at    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    expires_at    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (scope, idem_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys (expires_at);
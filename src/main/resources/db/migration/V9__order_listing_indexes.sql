@@ -0,0 +1,15 @@
+-- Orders created before the order date was recorded sort by their first payment, else by now
+UPDATE orders o
+SET order_date = COALESCE((SELECT MIN(p.payment_date) FROM payments p WHERE p.order_id = o.id), NOW())
+WHERE o.order_date IS NULL;
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS rwanda_phone_number VARCHAR(255);
+
+-- Keyset listings, newest first: per customer, per status, all orders and by phone number
+CREATE INDEX IF NOT EXISTS idx_orders_user_date ON orders (user_id, order_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_status_date ON orders (status, order_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_date ON orders (order_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_phone_date ON orders (rwanda_phone_number, order_date DESC, id DESC);
+
+-- Lines of a page of orders
+CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id);
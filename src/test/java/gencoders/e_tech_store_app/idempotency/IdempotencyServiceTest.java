@@ -0,0 +1,244 @@
+package gencoders.e_tech_store_app.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gencoders.e_tech_store_app.exception.IdempotencyConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Replay, conflicts and claim leases. The idempotency_keys table is modelled
+ * in memory, one row per scope and key, following the conditions of the
+ * service's statements.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "order:7";
+    private static final String KEY = "checkout-1";
+    private static final long LEASE_SECONDS = 120;
+
+    @Mock private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private IdempotencyService idempotencyService;
+
+    private final Map<String, Row> table = new HashMap<>();
+
+    private static final class Row {
+        String requestHash;
+        Integer statusCode;
+        String responseBody;
+        LocalDateTime createdAt;
+        LocalDateTime expiresAt;
+    }
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(jdbcTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "leaseSeconds", LEASE_SECONDS);
+
+        lenient().when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> find(invocation.getArgument(1), invocation.getArgument(2)));
+        lenient().when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class)))
+                .thenAnswer(invocation -> update(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    @Test
+    void retryReplaysTheStoredResponseWithoutRunningAgain() {
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<ResponseEntity<?>> action = () -> ResponseEntity.ok(Map.of("orderId", runs.incrementAndGet()));
+
+        ResponseEntity<?> first = idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), action);
+        ResponseEntity<?> retry = idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), action);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getBody()).isEqualTo("{\"orderId\":1}");
+    }
+
+    @Test
+    void retryWhileTheFirstRequestRunsGets409() {
+        ResponseEntity<?> first = idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), () -> {
+            assertThatThrownBy(() -> idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1),
+                    () -> ResponseEntity.ok("second")))
+                    .isInstanceOfSatisfying(IdempotencyConflictException.class,
+                            e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+            return ResponseEntity.ok("first");
+        });
+
+        assertThat(first.getBody()).isEqualTo("first");
+    }
+
+    @Test
+    void reusingTheKeyForADifferentRequestGets422() {
+        idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), () -> ResponseEntity.ok("placed"));
+
+        assertThatThrownBy(() -> idempotencyService.execute(KEY, SCOPE, Map.of("cart", 2),
+                () -> ResponseEntity.ok("placed again")))
+                .isInstanceOfSatisfying(IdempotencyConflictException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+    }
+
+    @Test
+    void keysAreSeparatePerScope() {
+        idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), () -> ResponseEntity.ok("user 7"));
+
+        ResponseEntity<?> other = idempotencyService.execute(KEY, "order:8", Map.of("cart", 2),
+                () -> ResponseEntity.ok("user 8"));
+
+        assertThat(other.getBody()).isEqualTo("user 8");
+    }
+
+    @Test
+    void failedRequestGivesTheKeyBack() {
+        AtomicInteger runs = new AtomicInteger();
+
+        idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.badRequest().body("declined");
+        });
+        assertThatThrownBy(() -> idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("gateway down");
+        })).isInstanceOf(IllegalStateException.class);
+        ResponseEntity<?> retry = idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok("paid");
+        });
+
+        assertThat(runs.get()).isEqualTo(3);
+        assertThat(retry.getBody()).isEqualTo("paid");
+    }
+
+    @Test
+    void abandonedClaimIsTakenOverOnceItsLeaseRunsOut() throws Exception {
+        Row crashed = claimLeftBehind(LocalDateTime.now().minusSeconds(LEASE_SECONDS + 1));
+
+        ResponseEntity<?> retry = idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1),
+                () -> ResponseEntity.ok("placed"));
+
+        assertThat(retry.getBody()).isEqualTo("placed");
+        assertThat(table.get(SCOPE + "/" + KEY)).isNotSameAs(crashed);
+    }
+
+    @Test
+    void claimWithinItsLeaseStillGets409() throws Exception {
+        claimLeftBehind(LocalDateTime.now().minusSeconds(LEASE_SECONDS - 30));
+
+        assertThatThrownBy(() -> idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1),
+                () -> ResponseEntity.ok("placed")))
+                .isInstanceOfSatisfying(IdempotencyConflictException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    @Test
+    void requestWhoseClaimWasTakenOverDoesNotOverwriteTheNewResponse() {
+        idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), () -> {
+            // The first request outlives its lease and a retry takes the key over
+            table.get(SCOPE + "/" + KEY).createdAt = LocalDateTime.now().minusSeconds(LEASE_SECONDS + 1);
+            idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1), () -> ResponseEntity.ok("retry"));
+            return ResponseEntity.ok("slow first");
+        });
+
+        ResponseEntity<?> replay = idempotencyService.execute(KEY, SCOPE, Map.of("cart", 1),
+                () -> ResponseEntity.ok("unexpected"));
+
+        assertThat(replay.getBody()).isEqualTo("\"retry\"");
+    }
+
+    @Test
+    void blankKeyIsRejected() {
+        assertThatThrownBy(() -> idempotencyService.execute(" ", SCOPE, Map.of("cart", 1),
+                () -> ResponseEntity.ok("placed")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /* ---------- In-memory idempotency_keys ---------- */
+
+    private Row claimLeftBehind(LocalDateTime createdAt) throws Exception {
+        Row row = new Row();
+        row.requestHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(new ObjectMapper().writeValueAsBytes(Map.of("cart", 1))));
+        row.createdAt = createdAt;
+        row.expiresAt = createdAt.plusHours(24);
+        table.put(SCOPE + "/" + KEY, row);
+        return row;
+    }
+
+    private synchronized List<?> find(SqlParameterSource params, RowMapper<?> mapper) throws Exception {
+        Row row = table.get(id(params));
+        LocalDateTime now = (LocalDateTime) params.getValue("now");
+        LocalDateTime leaseCutoff = (LocalDateTime) params.getValue("leaseCutoff");
+        if (row == null || !row.expiresAt.isAfter(now)
+                || (row.statusCode == null && !row.createdAt.isAfter(leaseCutoff))) {
+            return List.of();
+        }
+        ResultSet rs = mock(ResultSet.class, column -> switch ((String) column.getArgument(0)) {
+            case "request_hash" -> row.requestHash;
+            case "status_code" -> row.statusCode;
+            default -> row.responseBody;
+        });
+        return List.of(mapper.mapRow(rs, 0));
+    }
+
+    private synchronized int update(String sql, SqlParameterSource params) {
+        String id = id(params);
+        Row row = table.get(id);
+        if (sql.contains("INSERT INTO")) {
+            LocalDateTime now = (LocalDateTime) params.getValue("now");
+            LocalDateTime leaseCutoff = (LocalDateTime) params.getValue("leaseCutoff");
+            if (row != null && row.expiresAt.isAfter(now)
+                    && (row.statusCode != null || row.createdAt.isAfter(leaseCutoff))) {
+                return 0;
+            }
+            Row claim = new Row();
+            claim.requestHash = (String) params.getValue("hash");
+            claim.createdAt = now;
+            claim.expiresAt = (LocalDateTime) params.getValue("expiresAt");
+            table.put(id, claim);
+            return 1;
+        }
+        if (row == null || row.statusCode != null || !row.createdAt.equals(params.getValue("claimedAt"))) {
+            return 0;
+        }
+        if (sql.contains("DELETE")) {
+            table.remove(id);
+        } else {
+            row.statusCode = (Integer) params.getValue("status");
+            row.responseBody = (String) params.getValue("body");
+        }
+        return 1;
+    }
+
+    private static String id(SqlParameterSource params) {
+        return params.getValue("scope") + "/" + params.getValue("key");
+    }
+}
@@ -0,0 +1,49 @@
+package gencoders.e_tech_store_app.order;
+
+import gencoders.e_tech_store_app.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderCursorTest {
+
+    @Test
+    void roundTripsTheOrderDateAndId() {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000), 42L);
+
+        assertThat(OrderCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedFormIsUrlSafe() {
+        String token = new OrderCursor(LocalDateTime.of(2025, 12, 31, 23, 59, 59), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsAnotherVersion() {
+        String token = encode("o0:42:2025-03-14T09:26:53");
+
+        assertThatThrownBy(() -> OrderCursor.decode(token)).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> OrderCursor.decode("not base64!")).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> OrderCursor.decode(encode("o1:42"))).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> OrderCursor.decode(encode("o1:x:2025-03-14T09:26:53")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> OrderCursor.decode(encode("o1:42:yesterday")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
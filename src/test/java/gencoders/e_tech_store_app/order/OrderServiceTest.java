@@ -0,0 +1,194 @@
+package gencoders.e_tech_store_app.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gencoders.e_tech_store_app.address.Address;
+import gencoders.e_tech_store_app.address.AddressRepository;
+import gencoders.e_tech_store_app.payment.PaymentService;
+import gencoders.e_tech_store_app.product.Product;
+import gencoders.e_tech_store_app.product.ProductRepository;
+import gencoders.e_tech_store_app.product.inventory.InventoryLedger;
+import gencoders.e_tech_store_app.product.inventory.StockReservationService;
+import gencoders.e_tech_store_app.shoppingcart.CartItem;
+import gencoders.e_tech_store_app.shoppingcart.ShoppingCart;
+import gencoders.e_tech_store_app.shoppingcart.ShoppingCartService;
+import gencoders.e_tech_store_app.user.User;
+import gencoders.e_tech_store_app.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stock taking at checkout. The repository's conditional decrement is modelled
+ * with an atomic counter, so concurrent checkouts race exactly as the
+ * {@code UPDATE ... WHERE stock_quantity >= :quantity} statements do.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long ADDRESS_ID = 3L;
+
+    @Mock private OrderRepository orderRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private AddressRepository addressRepository;
+    @Mock private ShoppingCartService shoppingCartService;
+    @Mock private ProductRepository productRepository;
+    @Mock private PaymentService paymentService;
+    @Mock private StockReservationService reservationService;
+    @Mock private InventoryLedger inventoryLedger;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private ObjectMapper objectMapper;
+    @Mock private OrderListing orderListing;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private OrderRequest request;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(USER_ID);
+        Address address = new Address();
+        address.setId(ADDRESS_ID);
+        address.setUser(user);
+        request = new OrderRequest();
+        request.setAddressId(ADDRESS_ID);
+
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(addressRepository.findById(ADDRESS_ID)).thenReturn(Optional.of(address));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverTakeMoreThanTheStock() throws Exception {
+        Product phone = product(1L, "Phone");
+        AtomicInteger stock = stockOf(phone, 5);
+        when(shoppingCartService.getCartByUser(USER_ID)).thenReturn(cart(Map.of(phone, 1)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        int checkouts = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(checkouts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < checkouts; i++) {
+                results.add(pool.submit((Callable<Order>) () -> {
+                    start.await();
+                    return orderService.createOrder(USER_ID, request);
+                }));
+            }
+            start.countDown();
+
+            int placed = 0;
+            int rejected = 0;
+            for (Future<Order> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    placed++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(StockException.class);
+                    rejected++;
+                }
+            }
+            assertThat(placed).isEqualTo(5);
+            assertThat(rejected).isEqualTo(checkouts - 5);
+            assertThat(stock.get()).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void takesStockInProductIdOrder() {
+        Product tablet = product(9L, "Tablet");
+        Product phone = product(2L, "Phone");
+        Product charger = product(5L, "Charger");
+        stockOf(tablet, 10);
+        stockOf(phone, 10);
+        stockOf(charger, 10);
+        when(shoppingCartService.getCartByUser(USER_ID)).thenReturn(cart(Map.of(tablet, 1, phone, 1, charger, 1)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderService.createOrder(USER_ID, request);
+
+        InOrder order = inOrder(productRepository);
+        order.verify(productRepository).decrementStockIfAvailable(eq(2L), eq(1), any());
+        order.verify(productRepository).decrementStockIfAvailable(eq(5L), eq(1), any());
+        order.verify(productRepository).decrementStockIfAvailable(eq(9L), eq(1), any());
+    }
+
+    @Test
+    void shortOrderFailsWithEveryShortLineAndTakesNothingFurther() {
+        Product phone = product(1L, "Phone");
+        Product protector = product(2L, "Screen protector");
+        stockOf(phone, 0);
+        when(productRepository.findActiveStockQuantity(2L)).thenReturn(Optional.of(1));
+        when(shoppingCartService.getCartByUser(USER_ID)).thenReturn(cart(Map.of(phone, 1, protector, 2)));
+
+        assertThatThrownBy(() -> orderService.createOrder(USER_ID, request))
+                .isInstanceOfSatisfying(StockException.class, e -> assertThat(e.getShortLines())
+                        .extracting(StockException.ShortLine::productId, StockException.ShortLine::available)
+                        .containsExactly(
+                                tuple(1L, 0),
+                                tuple(2L, 1)));
+
+        // After the first short line the rest is only checked, never taken
+        verify(productRepository, never()).decrementStockIfAvailable(eq(2L), anyInt(), any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    /* ---------- Fixtures ---------- */
+
+    private AtomicInteger stockOf(Product product, int units) {
+        AtomicInteger stock = new AtomicInteger(units);
+        when(productRepository.decrementStockIfAvailable(eq(product.getId()), anyInt(), any())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            return stock.getAndUpdate(left -> left >= quantity ? left - quantity : left) >= quantity ? 1 : 0;
+        });
+        // Only read once a line comes up short
+        lenient().when(productRepository.findActiveStockQuantity(product.getId()))
+                .thenAnswer(invocation -> Optional.of(stock.get()));
+        return stock;
+    }
+
+    private static Product product(Long id, String name) {
+        return Product.builder().id(id).name(name).price(new BigDecimal("100.00")).build();
+    }
+
+    private static ShoppingCart cart(Map<Product, Integer> lines) {
+        ShoppingCart cart = new ShoppingCart();
+        lines.forEach((product, quantity) -> cart.getItems().add(new CartItem(product, quantity)));
+        return cart;
+    }
+}
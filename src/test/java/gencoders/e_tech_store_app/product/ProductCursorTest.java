@@ -0,0 +1,62 @@
+package gencoders.e_tech_store_app.product;
+
+import gencoders.e_tech_store_app.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @Test
+    void roundTripsEverySortKeyType() {
+        assertRoundTrip(new ProductCursor("id", true, 17L, 17L));
+        assertRoundTrip(new ProductCursor("price", false, new BigDecimal("1299.90"), 5L));
+        assertRoundTrip(new ProductCursor("stockQuantity", true, 0, 8L));
+        assertRoundTrip(new ProductCursor("createdAt", false, LocalDateTime.of(2025, 1, 2, 3, 4, 5, 6_000), 9L));
+    }
+
+    @Test
+    void roundTripsNamesContainingTheSeparator() {
+        assertRoundTrip(new ProductCursor("name", true, "Galaxy S24: 256GB", 3L));
+    }
+
+    @Test
+    void roundTripsAMissingSortValue() {
+        assertRoundTrip(new ProductCursor("discountPrice", true, null, 12L));
+    }
+
+    @Test
+    void startsAfterTheGivenProduct() {
+        Product last = Product.builder().id(21L).name("Pixel 9").price(new BigDecimal("899.00")).build();
+
+        ProductCursor cursor = ProductCursor.after(last, "price", true);
+
+        assertThat(ProductCursor.decode(cursor.encode()))
+                .isEqualTo(new ProductCursor("price", true, new BigDecimal("899.00"), 21L));
+    }
+
+    @Test
+    void rejectsUnsupportedSortsAndMalformedTokens() {
+        assertThatThrownBy(() -> ProductCursor.decode(encode("p1:rating:a:3:=4.5")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(encode("p0:id:a:3:=3")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(encode("p1:price:a:3:=cheap")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> ProductCursor.decode("%%%")).isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static void assertRoundTrip(ProductCursor cursor) {
+        assertThat(ProductCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,225 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtering, paging and keyset scrolling over the facet index. The database
+ * listing is modelled as a plain filter and sort over the same entries,
+ * following the conditions of {@code ProductRepository.filterProducts} with
+ * ties ordered by id.
+ */
+class CatalogIndexTest {
+
+    private static final CatalogQuery ALL = query(null, null, null, null, null);
+
+    private final CatalogIndex index = new CatalogIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(List.of(
+                product(1, "Galaxy S24", "Samsung", "Phones", "128GB", "900.00", 5),
+                product(2, "Galaxy A15", "Samsung", "Phones", "64GB", "250.00", 5),
+                product(3, "iPhone 15", "Apple", "Phones", "128GB", "1100.00", 5),
+                product(4, "Pixel 8", "Google", "Phones", "128GB", "700.00", 5),
+                product(5, "MacBook Air", "Apple", "Laptops", "256GB", "1100.00", 5),
+                product(6, "Galaxy Tab", "Samsung", "Tablets", null, "450.00", 5)));
+    }
+
+    @Test
+    void filtersOnEveryFacetCaseInsensitively() {
+        assertThat(ids(index.query(query("PHONES", null, null, null, null), 0, 10, "id", true)))
+                .containsExactly(1L, 2L, 3L, 4L);
+        assertThat(ids(index.query(query(null, "samsung", "128gb", null, null), 0, 10, "id", true)))
+                .containsExactly(1L);
+    }
+
+    @Test
+    void unknownFacetValueMatchesNothing() {
+        Page<CatalogEntry> page = index.query(query(null, "Nokia", null, null, null), 0, 10, "id", true).orElseThrow();
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isZero();
+    }
+
+    @Test
+    void priceRangeIncludesBothBounds() {
+        assertThat(ids(index.query(query(null, null, null, "700.00", "1100.00"), 0, 10, "id", true)))
+                .containsExactly(1L, 3L, 4L, 5L);
+        assertThat(ids(index.query(query(null, "apple", null, null, "1099.99"), 0, 10, "id", true)))
+                .isEmpty();
+    }
+
+    @Test
+    void pagesFollowTheSortOrderWithTiesBrokenById() {
+        assertThat(ids(index.query(ALL, 0, 2, "price", true))).containsExactly(2L, 6L);
+        assertThat(ids(index.query(ALL, 1, 2, "price", true))).containsExactly(4L, 1L);
+        assertThat(ids(index.query(ALL, 2, 2, "price", true))).containsExactly(3L, 5L);
+        assertThat(ids(index.query(ALL, 0, 2, "price", false))).containsExactly(5L, 3L);
+        assertThat(index.query(ALL, 2, 2, "price", true).orElseThrow().getTotalElements()).isEqualTo(6);
+    }
+
+    @Test
+    void scrollVisitsEveryMatchOnceInBothDirections() {
+        CatalogQuery phones = query("phones", null, null, null, null);
+        for (boolean ascending : new boolean[] {true, false}) {
+            List<Long> paged = ids(index.query(phones, 0, 10, "price", ascending));
+
+            List<Long> scrolled = new ArrayList<>();
+            CatalogEntry last = null;
+            CatalogIndex.Scroll window;
+            do {
+                window = index.scroll(phones, null, "price", ascending,
+                        last == null ? null : CatalogIndex.sortValue(last, "price"),
+                        last == null ? null : last.id(), 1).orElseThrow();
+                window.content().forEach(entry -> scrolled.add(entry.id()));
+                last = window.content().isEmpty() ? last : window.content().get(window.content().size() - 1);
+                assertThat(window.total()).isEqualTo(4);
+            } while (window.hasNext());
+
+            assertThat(scrolled).isEqualTo(paged);
+        }
+    }
+
+    @Test
+    void restrictionLimitsTheMatchesToTheGivenIds() {
+        assertThat(ids(index.query(query(null, "apple", null, null, null), List.of(1L, 3L, 42L), 0, 10, "id", true)))
+                .containsExactly(3L);
+    }
+
+    @Test
+    void changesMoveProductsWithinCachedSortOrders() {
+        // Build the price and name orders before the changes
+        index.query(ALL, 0, 10, "price", true);
+        index.query(ALL, 0, 10, "name", true);
+
+        index.upsert(product(2, "Galaxy A15", "Samsung", "Phones", "64GB", "2000.00", 5));
+        index.upsert(product(1, "Galaxy S24", "Samsung", "Phones", "128GB", "900.00", 0));
+        index.remove(4L);
+        index.upsert(product(7, "Moto G", "Motorola", "Phones", "64GB", "150.00", 5));
+
+        assertThat(ids(index.query(ALL, 0, 10, "price", true))).containsExactly(7L, 6L, 1L, 3L, 5L, 2L);
+        assertThat(ids(index.query(ALL, 0, 10, "name", true))).containsExactly(2L, 1L, 6L, 5L, 7L, 3L);
+        assertThat(ids(index.query(query(null, null, null, "1500.00", null), 0, 10, "id", true)))
+                .containsExactly(2L);
+    }
+
+    @Test
+    void indexUnavailableOrSortUnknownFallsBackToTheDatabase() {
+        assertThat(new CatalogIndex().query(ALL, 0, 10, "id", true)).isEmpty();
+        assertThat(index.query(ALL, 0, 10, "brand", true)).isEmpty();
+    }
+
+    @Test
+    void indexMatchesTheDatabaseListingAfterRandomChanges() {
+        Random random = new Random(42);
+        String[] brands = {"Samsung", "Apple", "Google", null};
+        String[] categories = {"Phones", "Laptops", "Tablets"};
+        String[] memories = {"64GB", "128GB", "256GB", null};
+        String[] sortKeys = {"id", "name", "price", "stockQuantity", "createdAt"};
+
+        Map<Long, CatalogEntry> catalog = new LinkedHashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            catalog.put(id, randomProduct(random, id, brands, categories, memories));
+        }
+        index.rebuild(catalog.values());
+
+        for (int round = 0; round < 50; round++) {
+            long id = 1 + random.nextInt(220);
+            if (random.nextInt(4) == 0) {
+                catalog.remove(id);
+                index.remove(id);
+            } else {
+                CatalogEntry entry = randomProduct(random, id, brands, categories, memories);
+                catalog.put(id, entry);
+                index.upsert(entry);
+            }
+
+            CatalogQuery query = query(
+                    random.nextBoolean() ? categories[random.nextInt(categories.length)].toLowerCase() : null,
+                    random.nextBoolean() ? brands[random.nextInt(brands.length - 1)].toUpperCase() : null,
+                    random.nextInt(3) == 0 ? memories[random.nextInt(memories.length - 1)] : null,
+                    random.nextBoolean() ? random.nextInt(500) + ".00" : null,
+                    random.nextBoolean() ? (500 + random.nextInt(1000)) + ".00" : null);
+            String sortBy = sortKeys[random.nextInt(sortKeys.length)];
+            boolean ascending = random.nextBoolean();
+
+            List<Long> expected = listing(catalog.values(), query, sortBy, ascending);
+            Page<CatalogEntry> page = index.query(query, 1, 5, sortBy, ascending).orElseThrow();
+            assertThat(ids(page)).isEqualTo(expected.stream().skip(5).limit(5).toList());
+            assertThat(page.getTotalElements()).isEqualTo(expected.size());
+        }
+    }
+
+    /* ---------- Fixtures ---------- */
+
+    private static CatalogQuery query(String category, String brand, String memory, String minPrice, String maxPrice) {
+        return new CatalogQuery(category, brand, memory, null, null, null, null,
+                minPrice == null ? null : new BigDecimal(minPrice),
+                maxPrice == null ? null : new BigDecimal(maxPrice));
+    }
+
+    private static CatalogEntry product(long id, String name, String brand, String category, String memory,
+                                        String price, int stock) {
+        LocalDateTime created = LocalDateTime.of(2026, 1, 1, 0, 0).plusHours(id % 7);
+        return new CatalogEntry(id, name, null, brand, null, null, category, memory, null, null, null, null,
+                new BigDecimal(price), null, stock, 2, null, false, created, created, Map.of());
+    }
+
+    private static CatalogEntry randomProduct(Random random, long id, String[] brands, String[] categories,
+                                              String[] memories) {
+        return product(id, "Product " + random.nextInt(50),
+                brands[random.nextInt(brands.length)],
+                categories[random.nextInt(categories.length)],
+                memories[random.nextInt(memories.length)],
+                (100 + 50 * random.nextInt(30)) + ".00",
+                random.nextInt(4));
+    }
+
+    /** The database listing: LOWER(x) = LOWER(:x) per facet, inclusive price bounds, ordered by key then id. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Long> listing(Collection<CatalogEntry> catalog, CatalogQuery query,
+                                      String sortBy, boolean ascending) {
+        Comparator<CatalogEntry> order = (a, b) -> {
+            Comparable x = CatalogIndex.sortValue(a, sortBy);
+            Comparable y = CatalogIndex.sortValue(b, sortBy);
+            int cmp = x == null ? (y == null ? 0 : 1) : y == null ? -1 : x.compareTo(y);
+            return cmp != 0 ? cmp : a.id().compareTo(b.id());
+        };
+        return catalog.stream()
+                .filter(entry -> equalsIgnoreCase(entry.category(), query.category()))
+                .filter(entry -> equalsIgnoreCase(entry.brand(), query.brand()))
+                .filter(entry -> equalsIgnoreCase(entry.memory(), query.memory()))
+                .filter(entry -> query.minPrice() == null || entry.price().compareTo(query.minPrice()) >= 0)
+                .filter(entry -> query.maxPrice() == null || entry.price().compareTo(query.maxPrice()) <= 0)
+                .sorted(ascending ? order : order.reversed())
+                .map(CatalogEntry::id)
+                .toList();
+    }
+
+    private static boolean equalsIgnoreCase(String value, String constraint) {
+        return constraint == null || (value != null && value.equalsIgnoreCase(constraint));
+    }
+
+    private static List<Long> ids(Optional<Page<CatalogEntry>> page) {
+        return ids(page.orElseThrow());
+    }
+
+    private static List<Long> ids(Page<CatalogEntry> page) {
+        return page.getContent().stream().map(CatalogEntry::id).toList();
+    }
+}
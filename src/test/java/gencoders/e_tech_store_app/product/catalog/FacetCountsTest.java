@@ -0,0 +1,129 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Disjunctive facet counts. The grouped database query is modelled by
+ * grouping the same entries on their raw facet values within the price
+ * range, as {@code ProductRepository.countFacetGroups} does.
+ */
+class FacetCountsTest {
+
+    private static final List<CatalogEntry> CATALOG = List.of(
+            product(1, "Phones", "Samsung", "128GB", "900.00"),
+            product(2, "Phones", "Samsung", "64GB", "250.00"),
+            product(3, "Phones", "Apple", "128GB", "1100.00"),
+            product(4, "Phones", "Google", "128GB", "700.00"),
+            product(5, "Laptops", "Apple", "256GB", "1100.00"),
+            product(6, "Tablets", "Samsung", null, "450.00"));
+
+    @Test
+    void facetCountsIgnoreTheirOwnConstraint() {
+        FacetCounts counts = FacetCounts.compute(CATALOG, query("phones", "samsung", null, null, null));
+
+        assertThat(counts.total()).isEqualTo(2);
+        assertThat(counts.facets().get("brand")).containsExactlyInAnyOrderEntriesOf(
+                Map.of("Samsung", 2L, "Apple", 1L, "Google", 1L));
+        assertThat(counts.facets().get("category")).containsExactlyInAnyOrderEntriesOf(
+                Map.of("Phones", 2L, "Tablets", 1L));
+        assertThat(counts.facets().get("memory")).containsExactlyInAnyOrderEntriesOf(
+                Map.of("128GB", 1L, "64GB", 1L));
+    }
+
+    @Test
+    void productFailingTwoConstraintsIsCountedNowhere() {
+        FacetCounts counts = FacetCounts.compute(CATALOG, query(null, "samsung", "128gb", null, null));
+
+        assertThat(counts.total()).isEqualTo(1);
+        // Products 3 and 4 only miss the brand; product 5 misses both and is not counted
+        assertThat(counts.facets().get("brand")).containsExactlyInAnyOrderEntriesOf(
+                Map.of("Samsung", 1L, "Apple", 1L, "Google", 1L));
+        assertThat(counts.facets().get("memory")).containsExactlyInAnyOrderEntriesOf(
+                Map.of("128GB", 1L, "64GB", 1L));
+    }
+
+    @Test
+    void priceRangeLimitsEveryFacet() {
+        FacetCounts counts = FacetCounts.compute(CATALOG, query(null, null, null, "400.00", "900.00"));
+
+        assertThat(counts.total()).isEqualTo(3);
+        assertThat(counts.facets().get("brand")).containsExactlyInAnyOrderEntriesOf(
+                Map.of("Samsung", 2L, "Google", 1L));
+    }
+
+    @Test
+    void valuesDifferingOnlyInCaseOrSpacingAreOneValue() {
+        FacetCounts counts = FacetCounts.compute(List.of(
+                product(1, "Phones", "Samsung", null, "100.00"),
+                product(2, "Phones", " SAMSUNG ", null, "100.00")), query(null, "samsung", null, null, null));
+
+        assertThat(counts.total()).isEqualTo(2);
+        assertThat(counts.facets().get("brand")).hasSize(1);
+        assertThat(counts.facets().get("brand").values()).containsExactly(2L);
+    }
+
+    @Test
+    void groupedCountsMatchTheIndexCounts() {
+        Random random = new Random(7);
+        String[] categories = {"Phones", "phones", "Laptops", null};
+        String[] brands = {"Samsung", "SAMSUNG", "Apple", "Google", null};
+        String[] memories = {"64GB", "128GB", null};
+        List<CatalogEntry> catalog = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            catalog.add(product(id, categories[random.nextInt(categories.length)],
+                    brands[random.nextInt(brands.length)], memories[random.nextInt(memories.length)],
+                    (100 + 10 * random.nextInt(100)) + ".00"));
+        }
+        CatalogIndex index = new CatalogIndex();
+        index.rebuild(catalog);
+
+        for (int round = 0; round < 40; round++) {
+            CatalogQuery query = query(
+                    random.nextBoolean() ? "phones" : null,
+                    random.nextBoolean() ? brands[random.nextInt(brands.length - 1)] : null,
+                    random.nextInt(3) == 0 ? memories[random.nextInt(memories.length - 1)] : null,
+                    random.nextBoolean() ? (100 + random.nextInt(500)) + ".00" : null,
+                    random.nextBoolean() ? (500 + random.nextInt(600)) + ".00" : null);
+
+            FacetCounts indexed = index.facetCounts(query, null).orElseThrow();
+            assertThat(FacetCounts.fromGroups(groups(catalog, query), query)).isEqualTo(indexed);
+        }
+    }
+
+    /* ---------- Fixtures ---------- */
+
+    private static CatalogQuery query(String category, String brand, String memory, String minPrice, String maxPrice) {
+        return new CatalogQuery(category, brand, memory, null, null, null, null,
+                minPrice == null ? null : new BigDecimal(minPrice),
+                maxPrice == null ? null : new BigDecimal(maxPrice));
+    }
+
+    private static CatalogEntry product(long id, String category, String brand, String memory, String price) {
+        return new CatalogEntry(id, "Product " + id, null, brand, null, null, category, memory, null, null, null,
+                null, new BigDecimal(price), null, 5, 2, null, false, null, null, Map.of());
+    }
+
+    /** The grouped query: products in the price range, grouped on their raw facet values. */
+    private static List<FacetGroup> groups(List<CatalogEntry> catalog, CatalogQuery query) {
+        Map<List<String>, Long> counts = new LinkedHashMap<>();
+        for (CatalogEntry entry : catalog) {
+            if (FacetCounts.inPriceRange(entry.price(), query.minPrice(), query.maxPrice())) {
+                counts.merge(Arrays.asList(entry.category(), entry.brand(), entry.memory()), 1L, Long::sum);
+            }
+        }
+        List<FacetGroup> groups = new ArrayList<>();
+        counts.forEach((values, count) -> groups.add(new FacetGroup(
+                values.get(0), values.get(1), values.get(2), null, null, null, null, count)));
+        return groups;
+    }
+}
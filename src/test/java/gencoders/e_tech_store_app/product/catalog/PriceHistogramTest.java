@@ -0,0 +1,153 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Bucket boundaries of the price histogram. The grouped database query is
+ * modelled by counting the same effective prices per distinct price, as
+ * {@code ProductRepository.countEffectivePrices} does.
+ */
+class PriceHistogramTest {
+
+    @Test
+    void bucketsSplitTheRangeEvenlyAndTheLastIsClosed() {
+        PriceHistogram histogram = PriceHistogram.of(prices("10.00", "12.00", "15.00", "20.00"), 2);
+
+        assertThat(histogram.total()).isEqualTo(4);
+        assertThat(histogram.buckets())
+                .extracting(PriceHistogram.Bucket::from, PriceHistogram.Bucket::to, PriceHistogram.Bucket::count)
+                .containsExactly(
+                        tuple(new BigDecimal("10.00"), new BigDecimal("15.00"), 2L),
+                        tuple(new BigDecimal("15.00"), new BigDecimal("20.00"), 2L));
+    }
+
+    @Test
+    void bucketsNeverRunPastTheMaximum() {
+        // A width rounded up to the cent (3.34) used to end the last bucket at 20.02
+        PriceHistogram histogram = PriceHistogram.of(prices("10.00", "13.33", "16.67", "20.00"), 3);
+
+        assertThat(histogram.buckets())
+                .extracting(PriceHistogram.Bucket::from, PriceHistogram.Bucket::to, PriceHistogram.Bucket::count)
+                .containsExactly(
+                        tuple(new BigDecimal("10.00"), new BigDecimal("13.33"), 1L),
+                        tuple(new BigDecimal("13.33"), new BigDecimal("16.67"), 1L),
+                        tuple(new BigDecimal("16.67"), new BigDecimal("20.00"), 2L));
+    }
+
+    @Test
+    void narrowRangeGetsOneBucketPerCent() {
+        // Ten buckets over two cents used to repeat boundaries
+        PriceHistogram histogram = PriceHistogram.of(prices("0.01", "0.02", "0.03"), 10);
+
+        assertThat(histogram.buckets())
+                .extracting(PriceHistogram.Bucket::from, PriceHistogram.Bucket::to, PriceHistogram.Bucket::count)
+                .containsExactly(
+                        tuple(new BigDecimal("0.01"), new BigDecimal("0.02"), 1L),
+                        tuple(new BigDecimal("0.02"), new BigDecimal("0.03"), 2L));
+    }
+
+    @Test
+    void bucketsAreContiguousAndCoverEveryPrice() {
+        Random random = new Random(3);
+        for (int round = 0; round < 100; round++) {
+            List<BigDecimal> prices = randomPrices(random, 1 + random.nextInt(50));
+            int bucketCount = 1 + random.nextInt(40);
+
+            PriceHistogram histogram = PriceHistogram.of(prices, bucketCount);
+
+            List<PriceHistogram.Bucket> buckets = histogram.buckets();
+            assertThat(buckets).hasSizeLessThanOrEqualTo(bucketCount);
+            assertThat(buckets.get(0).from()).isEqualByComparingTo(histogram.min());
+            assertThat(buckets.get(buckets.size() - 1).to()).isEqualByComparingTo(histogram.max());
+            for (int i = 1; i < buckets.size(); i++) {
+                assertThat(buckets.get(i).from()).isEqualTo(buckets.get(i - 1).to());
+                assertThat(buckets.get(i).to()).isGreaterThan(buckets.get(i).from());
+            }
+            assertThat(buckets.stream().mapToLong(PriceHistogram.Bucket::count).sum()).isEqualTo(prices.size());
+        }
+    }
+
+    @Test
+    void singlePriceIsOneBucketAndNoPriceIsNone() {
+        PriceHistogram single = PriceHistogram.of(prices("99.00", "99.00"), 10);
+        PriceHistogram none = PriceHistogram.of(List.of(), 10);
+
+        assertThat(single.buckets()).containsExactly(
+                new PriceHistogram.Bucket(new BigDecimal("99.00"), new BigDecimal("99.00"), 2));
+        assertThat(none.total()).isZero();
+        assertThat(none.min()).isNull();
+        assertThat(none.buckets()).isEmpty();
+    }
+
+    @Test
+    void groupedPricesGiveTheIndexHistogram() {
+        Random random = new Random(11);
+        String[] brands = {"Samsung", "Apple", "Google"};
+        List<CatalogEntry> catalog = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            BigDecimal price = new BigDecimal(100 + random.nextInt(900) + ".00");
+            BigDecimal discount = random.nextInt(3) == 0 ? price.subtract(new BigDecimal("25.50")) : null;
+            catalog.add(product(id, brands[random.nextInt(brands.length)], price, discount));
+        }
+        CatalogIndex index = new CatalogIndex();
+        index.rebuild(catalog);
+
+        for (String brand : new String[] {null, "apple", "google"}) {
+            // The slider's own range is not applied
+            CatalogQuery query = new CatalogQuery(null, brand, null, null, null, null, null,
+                    new BigDecimal("300.00"), new BigDecimal("400.00"));
+            int bucketCount = 1 + random.nextInt(30);
+
+            PriceHistogram indexed = index.priceHistogram(query, null, bucketCount).orElseThrow();
+
+            assertThat(PriceHistogram.fromCounts(groupedPrices(catalog, brand), bucketCount)).isEqualTo(indexed);
+            assertThat(indexed.total()).isEqualTo(catalog.stream()
+                    .filter(entry -> brand == null || entry.brand().equalsIgnoreCase(brand))
+                    .count());
+        }
+    }
+
+    /* ---------- Fixtures ---------- */
+
+    private static List<BigDecimal> prices(String... values) {
+        return Arrays.stream(values).map(BigDecimal::new).toList();
+    }
+
+    private static List<BigDecimal> randomPrices(Random random, int count) {
+        List<BigDecimal> prices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            prices.add(BigDecimal.valueOf(random.nextInt(5000), 2));
+        }
+        prices.sort(null);
+        return prices;
+    }
+
+    private static CatalogEntry product(long id, String brand, BigDecimal price, BigDecimal discountPrice) {
+        return new CatalogEntry(id, "Product " + id, null, brand, null, null, null, null, null, null, null, null,
+                price, discountPrice, 5, 2, null, false, null, null, Map.of());
+    }
+
+    /** The grouped query: matching products counted per distinct effective price, ascending. */
+    private static List<PriceCount> groupedPrices(List<CatalogEntry> catalog, String brand) {
+        Map<BigDecimal, Long> counts = new TreeMap<>();
+        for (CatalogEntry entry : catalog) {
+            if (brand == null || entry.brand().equalsIgnoreCase(brand)) {
+                counts.merge(entry.effectivePrice(), 1L, Long::sum);
+            }
+        }
+        List<PriceCount> grouped = new ArrayList<>();
+        counts.forEach((price, count) -> grouped.add(new PriceCount(price, count)));
+        return grouped;
+    }
+}
@@ -0,0 +1,107 @@
+package gencoders.e_tech_store_app.product.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Matching and BM25 ranking of the product search index. Field weights are
+ * name 3, brand 2 and description 1, so the fixture documents are 13, 12, 13
+ * and 10 weighted tokens long (average 12).
+ */
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(List.of(
+                product(1, "Samsung Galaxy S24", "Samsung", "Flagship phone"),
+                product(2, "Galaxy Tab S9", "Samsung", "Tablet"),
+                product(3, "iPhone 15", "Apple", "Phone with a Samsung display"),
+                product(4, "Pixel 8", "Google", "Android phone")));
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        assertThat(ids(index.search("galaxy tab"))).containsExactly(2L);
+        assertThat(ids(index.search("galaxy pixel"))).isEmpty();
+    }
+
+    @Test
+    void onlyTheLastTermMatchesAsAPrefix() {
+        assertThat(ids(index.search("gal"))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.search("gal tab"))).isEmpty();
+        // Too short to expand
+        assertThat(ids(index.search("g"))).isEmpty();
+    }
+
+    @Test
+    void textIsFoldedBeforeMatching() {
+        assertThat(ids(index.search("GALAXY-Tâb"))).containsExactly(2L);
+    }
+
+    @Test
+    void weightedFieldsRankNameAndBrandAboveDescription() {
+        assertThat(ids(index.search("samsung"))).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void scoreIsBm25OfTheWeightedTermFrequency() {
+        // "pixel": name only, tf 3, document length 10, one document in four
+        double idf = Math.log(1 + (4 - 1 + 0.5) / (1 + 0.5));
+        double norm = 1.2 * (1 - 0.75 + 0.75 * 10 / 12.0);
+        double expected = idf * 3 * (1.2 + 1) / (3 + norm);
+
+        List<ProductSearchIndex.Hit> hits = index.search("pixel").orElseThrow();
+
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).score()).isCloseTo(expected, within(1e-9));
+    }
+
+    @Test
+    void equalScoresAreOrderedByIdSoPagesAreStable() {
+        index.upsert(product(9, "Fast Charger", "Anker", "USB-C"));
+        index.upsert(product(8, "Fast Charger", "Anker", "USB-C"));
+
+        List<Long> ranked = ids(index.search("charger"));
+
+        assertThat(ranked).containsExactly(8L, 9L);
+        assertThat(ids(index.search("charger"))).isEqualTo(ranked);
+    }
+
+    @Test
+    void changesReplaceTheProductsTerms() {
+        index.upsert(product(1, "Samsung Galaxy S25", "Samsung", "Flagship phone"));
+        index.remove(2L);
+
+        assertThat(ids(index.search("s24"))).isEmpty();
+        assertThat(ids(index.search("s25"))).containsExactly(1L);
+        assertThat(ids(index.search("tab"))).isEmpty();
+        assertThat(ids(index.search("galaxy"))).containsExactly(1L);
+    }
+
+    @Test
+    void unbuiltIndexFallsBackAndBlankTextFindsNothing() {
+        assertThat(new ProductSearchIndex().search("galaxy")).isEmpty();
+        assertThat(index.search("  --  ")).contains(List.of());
+    }
+
+    /* ---------- Fixtures ---------- */
+
+    private static CatalogEntry product(long id, String name, String brand, String description) {
+        return new CatalogEntry(id, name, description, brand, null, null, null, null, null, null, null, null,
+                new BigDecimal("100.00"), null, 5, 2, null, false, null, null, Map.of());
+    }
+
+    private static List<Long> ids(Optional<List<ProductSearchIndex.Hit>> hits) {
+        return hits.orElseThrow().stream().map(ProductSearchIndex.Hit::productId).toList();
+    }
+}
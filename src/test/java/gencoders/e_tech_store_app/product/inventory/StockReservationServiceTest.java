@@ -0,0 +1,257 @@
+package gencoders.e_tech_store_app.product.inventory;
+
+import gencoders.e_tech_store_app.order.Order;
+import gencoders.e_tech_store_app.order.OrderCancellationEvent;
+import gencoders.e_tech_store_app.order.OrderPaymentSettledEvent;
+import gencoders.e_tech_store_app.order.OrderRepository;
+import gencoders.e_tech_store_app.order.OrderStatus;
+import gencoders.e_tech_store_app.product.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Settlement of stock holds. The status of the order's holds is modelled with
+ * an atomic reference, so racing settlements compete exactly as the
+ * compare-and-set {@code UPDATE ... WHERE status = :from} statements do.
+ */
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    private static final Long ORDER_ID = 11L;
+    private static final Long PRODUCT_ID = 4L;
+    private static final int HELD = 2;
+
+    @Mock private StockReservationRepository reservationRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private InventoryLedger inventoryLedger;
+    @Mock private OrderRepository orderRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private StockReservationService reservationService;
+
+    private final AtomicReference<ReservationStatus> holdStatus = new AtomicReference<>(ReservationStatus.ACTIVE);
+    private final AtomicInteger stock = new AtomicInteger();
+    private List<StockReservation> holds;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        holds = List.of(new StockReservation(ORDER_ID, PRODUCT_ID, HELD, now, now.plusMinutes(15)));
+        order = new Order();
+        order.setId(ORDER_ID);
+        order.setStatus(OrderStatus.PENDING);
+
+        lenient().when(reservationRepository.findByOrderIdAndStatus(eq(ORDER_ID), any())).thenAnswer(invocation -> {
+            ReservationStatus status = invocation.getArgument(1);
+            return status == holdStatus.get() ? holds : List.of();
+        });
+        lenient().when(reservationRepository.transition(eq(ORDER_ID), any(), any(), any())).thenAnswer(invocation -> {
+            ReservationStatus from = invocation.getArgument(1);
+            ReservationStatus to = invocation.getArgument(2);
+            return holdStatus.compareAndSet(from, to) ? holds.size() : 0;
+        });
+        lenient().when(productRepository.adjustStockQuantity(eq(PRODUCT_ID), anyInt()))
+                .thenAnswer(invocation -> stock.addAndGet(invocation.getArgument(1)) >= 0 ? 1 : 0);
+        lenient().when(productRepository.decrementStockIfAvailable(eq(PRODUCT_ID), anyInt(), any())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            return stock.getAndUpdate(left -> left >= quantity ? left - quantity : left) >= quantity ? 1 : 0;
+        });
+        lenient().when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+    }
+
+    @Test
+    void concurrentReleasesReturnTheUnitsOnce() throws Exception {
+        concurrently(10, () -> reservationService.release(ORDER_ID));
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.RELEASED);
+        assertThat(stock.get()).isEqualTo(HELD);
+        verify(productRepository, times(1)).adjustStockQuantity(PRODUCT_ID, HELD);
+        verify(inventoryLedger, times(1)).recordAll(eq(MovementType.RESERVATION_RELEASE), anyMap(), eq(ORDER_ID));
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+    }
+
+    @Test
+    void releaseAfterConvertLeavesTheSaleAlone() {
+        reservationService.convert(ORDER_ID);
+        reservationService.release(ORDER_ID);
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.CONVERTED);
+        assertThat(stock.get()).isZero();
+        verify(productRepository, never()).adjustStockQuantity(any(), anyInt());
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void releaseThatReadTheHoldsBeforeAConvertChangesNothing() {
+        // The release read the active holds just before the payment converted them
+        doReturn(holds).when(reservationRepository).findByOrderIdAndStatus(ORDER_ID, ReservationStatus.ACTIVE);
+
+        reservationService.convert(ORDER_ID);
+        reservationService.release(ORDER_ID);
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.CONVERTED);
+        verify(productRepository, never()).adjustStockQuantity(any(), anyInt());
+        verify(inventoryLedger, never()).recordAll(eq(MovementType.RESERVATION_RELEASE), anyMap(), any());
+        verifyNoInteractions(eventPublisher);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void convertAfterReleaseTakesTheUnitsAgain() {
+        reservationService.release(ORDER_ID);
+        assertThat(stock.get()).isEqualTo(HELD);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+
+        reservationService.convert(ORDER_ID);
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.CONVERTED);
+        assertThat(stock.get()).isZero();
+        verify(inventoryLedger).recordAll(eq(MovementType.SALE), eq(Map.of(PRODUCT_ID, -HELD)), eq(ORDER_ID));
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PROCESSING);
+    }
+
+    @Test
+    void cancellationAndLatePaymentAreReportedForTheSalesCounters() {
+        reservationService.release(ORDER_ID);
+        reservationService.convert(ORDER_ID);
+
+        verify(eventPublisher).publishEvent(cancellation(true));
+        verify(eventPublisher).publishEvent(cancellation(false));
+    }
+
+    @Test
+    void concurrentConvertsAfterExpiryTakeTheUnitsOnce() throws Exception {
+        holdStatus.set(ReservationStatus.RELEASED);
+        stock.set(HELD);
+        order.setStatus(OrderStatus.CANCELLED);
+
+        concurrently(10, () -> reservationService.convert(ORDER_ID));
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.CONVERTED);
+        assertThat(stock.get()).isZero();
+        verify(productRepository, times(1)).decrementStockIfAvailable(eq(PRODUCT_ID), eq(HELD), any());
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PROCESSING);
+    }
+
+    @Test
+    void convertAfterExpiryWithoutStockLeavesTheOrderCancelled() {
+        holdStatus.set(ReservationStatus.RELEASED);
+        order.setStatus(OrderStatus.CANCELLED);
+
+        reservationService.convert(ORDER_ID);
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.CONVERTED);
+        assertThat(stock.get()).isZero();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void expiryLeavesTheHoldsOfAnOrderWhosePaymentIsInFlight() {
+        expired(ORDER_ID);
+        when(reservationRepository.hasPaymentInFlight(eq(ORDER_ID), any())).thenReturn(true);
+
+        reservationService.releaseExpired();
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.ACTIVE);
+        assertThat(stock.get()).isZero();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING);
+
+        // The customer approves after the hold's deadline; the sale goes through
+        reservationService.onOrderPaymentSettled(new OrderPaymentSettledEvent(this, ORDER_ID, true));
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.CONVERTED);
+        assertThat(stock.get()).isZero();
+        verify(productRepository, never()).adjustStockQuantity(any(), anyInt());
+    }
+
+    @Test
+    void expiryReleasesTheHoldsOfAnOrderWithoutPaymentInFlight() {
+        expired(ORDER_ID);
+        when(reservationRepository.hasPaymentInFlight(eq(ORDER_ID), any())).thenReturn(false);
+
+        reservationService.releaseExpired();
+
+        assertThat(holdStatus.get()).isEqualTo(ReservationStatus.RELEASED);
+        assertThat(stock.get()).isEqualTo(HELD);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+    }
+
+    /* ---------- Fixtures ---------- */
+
+    private void expired(Long orderId) {
+        ReflectionTestUtils.setField(reservationService, "sweepBatchSize", 200);
+        when(reservationRepository.findExpiredOrderIds(eq(ReservationStatus.ACTIVE), any(), any(), any()))
+                .thenReturn(List.of(orderId));
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+    }
+
+    private static ApplicationEvent cancellation(boolean cancelled) {
+        return argThat(event -> event instanceof OrderCancellationEvent c
+                && c.getOrderId().equals(ORDER_ID)
+                && c.isCancelled() == cancelled
+                && c.getQuantities().equals(Map.of(PRODUCT_ID, HELD)));
+    }
+
+    private static void concurrently(int threads, Runnable action) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    action.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}